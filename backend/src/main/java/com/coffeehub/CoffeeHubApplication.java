@@ -2,8 +2,10 @@ package com.coffeehub;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class CoffeeHubApplication {
     public static void main(String[] args) {
         SpringApplication.run(CoffeeHubApplication.class, args);
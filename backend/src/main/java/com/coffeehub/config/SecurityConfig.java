@@ -49,6 +49,9 @@ public class SecurityConfig {
                         .requestMatchers("/menu/items").permitAll()
                         .requestMatchers("/menu/items/**").permitAll()
                         .requestMatchers("/menu/modifiers").permitAll()
+                        .requestMatchers("/menu/changes").permitAll()
+                        .requestMatchers("/menu/suggest").permitAll()
+                        .requestMatchers("/menu/facets").permitAll()
                         .requestMatchers("/tables").permitAll()
                         .requestMatchers("/tables/available").permitAll()
                         .requestMatchers("/tables/token/**").permitAll()
@@ -72,6 +75,7 @@ public class SecurityConfig {
                         .requestMatchers("/menu/categories/**").hasRole("ADMIN")
                         .requestMatchers("/menu/items/**").hasRole("ADMIN")
                         .requestMatchers("/menu/modifiers/**").hasRole("ADMIN")
+                        .requestMatchers("/menu/schedules", "/menu/schedules/**").hasRole("ADMIN")
 
                         // Table management endpoints
                         .requestMatchers("/tables/**").hasRole("ADMIN")
@@ -6,21 +6,27 @@ import com.coffeehub.dto.response.ActiveCustomerResponse;
 import com.coffeehub.dto.response.AdminDashboardSummary;
 import com.coffeehub.dto.response.ApiResponse;
 import com.coffeehub.dto.response.InvitationResponse;
+import com.coffeehub.dto.response.MenuImportJobResponse;
 import com.coffeehub.dto.response.MenuImportSummary;
 import com.coffeehub.dto.response.UserResponse;
 import com.coffeehub.entity.Order;
 import com.coffeehub.entity.RestaurantTable;
 import com.coffeehub.entity.StaffInvitation;
 import com.coffeehub.entity.User;
+import com.coffeehub.exception.ResourceNotFoundException;
 import com.coffeehub.repository.OrderRepository;
 import com.coffeehub.repository.RestaurantTableRepository;
 import com.coffeehub.repository.StaffInvitationRepository;
-import com.coffeehub.service.MenuService;
+import com.coffeehub.service.MenuImportService;
 import com.coffeehub.service.UserService;
+import com.coffeehub.service.menuimport.MenuImportJob;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -46,7 +52,7 @@ public class AdminController {
     private OrderRepository orderRepository;
 
     @Autowired
-    private MenuService menuService;
+    private MenuImportService menuImportService;
 
     @Autowired
     private StaffInvitationRepository invitationRepository;
@@ -367,14 +373,21 @@ public class AdminController {
      * Endpoint: POST /admin/menu/import
      * Access: ADMIN role only
      * Request body: List of MenuItemImportRequest
+     * Response: 200 with the summary, or 202 with the job to poll when the import is still
+     * waiting behind another one
      */
     @PostMapping("/menu/import")
-    public ResponseEntity<ApiResponse<MenuImportSummary>> importMenuItems(
+    public ResponseEntity<ApiResponse<?>> importMenuItems(
             @Valid @RequestBody List<MenuItemImportRequest> importRequests) {
         logger.info("Admin menu import request received with {} items", importRequests.size());
 
         try {
-            MenuImportSummary summary = menuService.importMenuItems(importRequests);
+            MenuImportJob job = menuImportService.importItems(importRequests);
+            if (!job.isFinished()) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(ApiResponse.success("Menu import is still running", job.toResponse()));
+            }
+            MenuImportSummary summary = job.toSummary();
             logger.info("Menu import completed successfully: {}", summary.getMessage());
             return ResponseEntity.ok(ApiResponse.success(summary));
         } catch (Exception e) {
@@ -383,4 +396,40 @@ public class AdminController {
                     .body(ApiResponse.error("Error importing menu items: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 📥 STREAMING MENU IMPORT
+     * Accepts a JSON array or CSV (Content-Type: text/csv) body of any size and imports it
+     * in the background. Poll the returned job for progress and the final summary.
+     *
+     * Endpoint: POST /admin/menu/import/stream
+     */
+    @PostMapping(value = "/menu/import/stream", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    public ResponseEntity<ApiResponse<MenuImportJobResponse>> streamMenuImport(HttpServletRequest request) {
+        logger.info("Admin streaming menu import request received ({})", request.getContentType());
+
+        try {
+            MenuImportJob job = menuImportService.submit(request.getInputStream(), request.getContentType());
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Menu import started", job.toResponse()));
+        } catch (Exception e) {
+            logger.error("Error starting menu import", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error starting menu import: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/menu/import/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<MenuImportJobResponse>> getMenuImportJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(menuImportService.getJob(jobId).toResponse()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error fetching menu import job: {}", jobId, e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error fetching menu import job: " + e.getMessage()));
+        }
+    }
+}
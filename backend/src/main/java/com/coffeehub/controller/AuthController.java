@@ -9,6 +9,7 @@ import com.coffeehub.entity.StaffInvitation;
 import com.coffeehub.entity.User;
 import com.coffeehub.repository.StaffInvitationRepository;
 import com.coffeehub.service.AuthService;
+import com.coffeehub.service.CartService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,12 +29,22 @@ public class AuthController {
     @Autowired
     private StaffInvitationRepository invitationRepository;
 
+    @Autowired
+    private CartService cartService;
+
+    /**
+     * Signs the user in. A guest signing in at checkout passes their {@code sessionToken}, and
+     * their guest cart is merged into the account's cart before the response goes out.
+     */
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<ApiResponse<AuthResponse>> login(
+            @Valid @RequestBody LoginRequest loginRequest,
+            @RequestParam(required = false) String sessionToken) {
         logger.info("Login request for user: {}", loginRequest.getEmail());
 
         try {
             AuthResponse authResponse = authService.login(loginRequest);
+            mergeGuestCart(sessionToken, authResponse);
             return ResponseEntity.ok(ApiResponse.success("Login successful", authResponse));
         } catch (Exception e) {
             logger.error("Login failed for user: {}", loginRequest.getEmail(), e);
@@ -43,11 +54,14 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<ApiResponse<AuthResponse>> register(@Valid @RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<ApiResponse<AuthResponse>> register(
+            @Valid @RequestBody RegisterRequest registerRequest,
+            @RequestParam(required = false) String sessionToken) {
         logger.info("Register request for user: {}", registerRequest.getEmail());
 
         try {
             AuthResponse authResponse = authService.register(registerRequest);
+            mergeGuestCart(sessionToken, authResponse);
             return ResponseEntity.ok(ApiResponse.success("Registration successful", authResponse));
         } catch (Exception e) {
             logger.error("Registration failed for user: {}", registerRequest.getEmail(), e);
@@ -152,6 +166,18 @@ public class AuthController {
         }
     }
 
+    // A failed merge leaves the guest cart in place and must not fail the sign-in
+    private void mergeGuestCart(String sessionToken, AuthResponse authResponse) {
+        if (sessionToken == null || sessionToken.isBlank() || authResponse.getUser() == null) {
+            return;
+        }
+        try {
+            cartService.mergeCarts(sessionToken, authResponse.getUser().getId());
+        } catch (Exception e) {
+            logger.warn("Could not merge guest cart for session: {}", sessionToken, e);
+        }
+    }
+
     // Inner class for invitation info response
     public static class StaffInvitationInfo {
         public String email;
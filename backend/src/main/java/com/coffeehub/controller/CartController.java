@@ -1,15 +1,23 @@
 package com.coffeehub.controller;
 
 import com.coffeehub.dto.request.CartItemRequest;
+import com.coffeehub.dto.request.CartOperationsRequest;
 import com.coffeehub.dto.response.ApiResponse;
 import com.coffeehub.dto.response.CartResponse;
+import com.coffeehub.dto.response.ReorderResponse;
+import com.coffeehub.exception.CartVersionConflictException;
+import com.coffeehub.exception.ValidationException;
 import com.coffeehub.service.CartService;
+import com.coffeehub.service.UserService;
+import com.coffeehub.service.cart.CartView;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -21,17 +29,31 @@ public class CartController {
     @Autowired
     private CartService cartService;
 
+    @Autowired
+    private UserService userService;
+
+    /**
+     * With {@code since} set to the cart version the client holds, this and the mutation
+     * endpoints answer with only the lines changed since then; a full cart comes back when
+     * that version is too old to diff from.
+     * <p>
+     * Responses carry the cart version as their ETag. Mutations sent with {@code If-Match} fail
+     * with 412 when the cart has changed since, except adds, which are merged into the current cart.
+     */
     @GetMapping
     public ResponseEntity<ApiResponse<CartResponse>> getCart(
             @RequestParam(required = false) Long userId,
             @RequestParam(required = false) String sessionToken,
-            @RequestParam(required = false) Long tableId) {
+            @RequestParam(required = false) Long tableId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long menuVersion) {
 
         logger.info("Getting cart - userId: {}, sessionToken: {}, tableId: {}", userId, sessionToken, tableId);
 
         try {
-            CartResponse cart = cartService.getOrCreateCart(userId, sessionToken, tableId);
-            return ResponseEntity.ok(ApiResponse.success(cart));
+            CartResponse cart = cartService.getOrCreateCart(userId, sessionToken, tableId,
+                    CartView.of(since, menuVersion));
+            return versioned(ApiResponse.success(cart), cart);
         } catch (Exception e) {
             logger.error("Error getting cart", e);
             return ResponseEntity.badRequest()
@@ -44,14 +66,21 @@ public class CartController {
             @RequestParam(required = false) Long userId,
             @RequestParam(required = false) String sessionToken,
             @RequestParam(required = false) Long tableId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long menuVersion,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
             @Valid @RequestBody CartItemRequest cartItemRequest) {
 
         logger.info("Adding item to cart - userId: {}, sessionToken: {}, tableId: {}, menuItemId: {}",
                 userId, sessionToken, tableId, cartItemRequest.getMenuItemId());
 
         try {
-            CartResponse cart = cartService.addItemToCart(userId, sessionToken, tableId, cartItemRequest);
-            return ResponseEntity.ok(ApiResponse.success("Item added to cart successfully", cart));
+            CartResponse cart = cartService.addItemToCart(userId, sessionToken, tableId, cartItemRequest,
+                    expectedVersion(ifMatch), CartView.of(since, menuVersion));
+            return versioned(ApiResponse.success("Item added to cart successfully", cart), cart);
+        } catch (CartVersionConflictException e) {
+            logger.warn("Cart version conflict while adding item to cart: {}", e.getMessage());
+            return versionConflict(e);
         } catch (Exception e) {
             logger.error("Error adding item to cart", e);
             return ResponseEntity.badRequest()
@@ -59,20 +88,58 @@ public class CartController {
         }
     }
 
+    /**
+     * Applies several add / update / remove / clear operations in one round trip.
+     * Operations run in order and either all take effect or none do.
+     */
+    @PostMapping("/operations")
+    public ResponseEntity<ApiResponse<CartResponse>> applyOperations(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String sessionToken,
+            @RequestParam(required = false) Long tableId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long menuVersion,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
+            @Valid @RequestBody CartOperationsRequest operationsRequest) {
+
+        logger.info("Applying cart operations - userId: {}, sessionToken: {}, tableId: {}, operations: {}",
+                userId, sessionToken, tableId, operationsRequest.getOperations().size());
+
+        try {
+            CartResponse cart = cartService.applyOperations(userId, sessionToken, tableId,
+                    operationsRequest.getOperations(), expectedVersion(ifMatch), CartView.of(since, menuVersion));
+            return versioned(ApiResponse.success("Cart operations applied successfully", cart), cart);
+        } catch (CartVersionConflictException e) {
+            logger.warn("Cart version conflict while applying cart operations: {}", e.getMessage());
+            return versionConflict(e);
+        } catch (Exception e) {
+            logger.error("Error applying cart operations", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error applying cart operations: " + e.getMessage()));
+        }
+    }
+
     @PutMapping("/items/{itemId}")
     public ResponseEntity<ApiResponse<CartResponse>> updateCartItem(
             @PathVariable Long itemId,
             @RequestParam(required = false) Long userId,
             @RequestParam(required = false) String sessionToken,
             @RequestParam(required = false) Long tableId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long menuVersion,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
             @Valid @RequestBody CartItemRequest cartItemRequest) {
 
         logger.info("Updating cart item - itemId: {}, userId: {}, sessionToken: {}, tableId: {}",
                 itemId, userId, sessionToken, tableId);
 
         try {
-            CartResponse cart = cartService.updateCartItem(userId, sessionToken, tableId, itemId, cartItemRequest);
-            return ResponseEntity.ok(ApiResponse.success("Cart item updated successfully", cart));
+            CartResponse cart = cartService.updateCartItem(userId, sessionToken, tableId, itemId, cartItemRequest,
+                    expectedVersion(ifMatch), CartView.of(since, menuVersion));
+            return versioned(ApiResponse.success("Cart item updated successfully", cart), cart);
+        } catch (CartVersionConflictException e) {
+            logger.warn("Cart version conflict while updating cart item: {}", e.getMessage());
+            return versionConflict(e);
         } catch (Exception e) {
             logger.error("Error updating cart item", e);
             return ResponseEntity.badRequest()
@@ -85,14 +152,21 @@ public class CartController {
             @PathVariable Long itemId,
             @RequestParam(required = false) Long userId,
             @RequestParam(required = false) String sessionToken,
-            @RequestParam(required = false) Long tableId) {
+            @RequestParam(required = false) Long tableId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long menuVersion,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
 
         logger.info("Removing item from cart - itemId: {}, userId: {}, sessionToken: {}, tableId: {}",
                 itemId, userId, sessionToken, tableId);
 
         try {
-            CartResponse cart = cartService.removeItemFromCart(userId, sessionToken, tableId, itemId);
-            return ResponseEntity.ok(ApiResponse.success("Item removed from cart successfully", cart));
+            CartResponse cart = cartService.removeItemFromCart(userId, sessionToken, tableId, itemId,
+                    expectedVersion(ifMatch), CartView.of(since, menuVersion));
+            return versioned(ApiResponse.success("Item removed from cart successfully", cart), cart);
+        } catch (CartVersionConflictException e) {
+            logger.warn("Cart version conflict while removing item from cart: {}", e.getMessage());
+            return versionConflict(e);
         } catch (Exception e) {
             logger.error("Error removing item from cart", e);
             return ResponseEntity.badRequest()
@@ -104,13 +178,20 @@ public class CartController {
     public ResponseEntity<ApiResponse<CartResponse>> clearCart(
             @RequestParam(required = false) Long userId,
             @RequestParam(required = false) String sessionToken,
-            @RequestParam(required = false) Long tableId) {
+            @RequestParam(required = false) Long tableId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long menuVersion,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
 
         logger.info("Clearing cart - userId: {}, sessionToken: {}, tableId: {}", userId, sessionToken, tableId);
 
         try {
-            CartResponse cart = cartService.clearCart(userId, sessionToken, tableId);
-            return ResponseEntity.ok(ApiResponse.success("Cart cleared successfully", cart));
+            CartResponse cart = cartService.clearCart(userId, sessionToken, tableId, expectedVersion(ifMatch),
+                    CartView.of(since, menuVersion));
+            return versioned(ApiResponse.success("Cart cleared successfully", cart), cart);
+        } catch (CartVersionConflictException e) {
+            logger.warn("Cart version conflict while clearing cart: {}", e.getMessage());
+            return versionConflict(e);
         } catch (Exception e) {
             logger.error("Error clearing cart", e);
             return ResponseEntity.badRequest()
@@ -118,6 +199,180 @@ public class CartController {
         }
     }
 
+    /**
+     * Puts the lines of one of the signed-in user's past orders back into their cart. Lines that
+     * can no longer be ordered are left out and listed in the response.
+     */
+    @PostMapping("/reorder/{orderId}")
+    public ResponseEntity<ApiResponse<ReorderResponse>> reorder(
+            @PathVariable Long orderId,
+            @AuthenticationPrincipal UserDetails principal,
+            @RequestParam(required = false) Long tableId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long menuVersion) {
+
+        // The order's owner comes from the token, never from the request
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error("Only signed-in customers can reorder"));
+        }
+
+        logger.info("Reordering - orderId: {}, user: {}, tableId: {}", orderId, principal.getUsername(), tableId);
+
+        try {
+            Long userId = userService.findByEmail(principal.getUsername()).getId();
+            ReorderResponse reorder = cartService.reorder(orderId, userId, tableId, CartView.of(since, menuVersion));
+            String message = reorder.getSkippedItems().isEmpty()
+                    ? "Order added to cart successfully"
+                    : "Order added to cart; some items are no longer available";
+            return ResponseEntity.ok()
+                    .eTag(String.valueOf(reorder.getCart().getVersion()))
+                    .body(ApiResponse.success(message, reorder));
+        } catch (Exception e) {
+            logger.error("Error reordering", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error reordering: " + e.getMessage()));
+        }
+    }
+
+    /** Checks every line of the cart against the current menu before checkout. */
+    @GetMapping("/validate")
+    public ResponseEntity<ApiResponse<CartResponse>> validateForCheckout(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String sessionToken,
+            @RequestParam(required = false) Long tableId) {
+
+        logger.info("Validating cart for checkout - userId: {}, sessionToken: {}, tableId: {}", userId, sessionToken, tableId);
+
+        try {
+            CartResponse cart = cartService.validateForCheckout(userId, sessionToken, tableId);
+            return versioned(ApiResponse.success("Cart is ready for checkout", cart), cart);
+        } catch (Exception e) {
+            logger.error("Cart failed checkout validation", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Cart failed checkout validation: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * The table's shared cart. Every guest who scanned the table's QR code edits it, identified
+     * by their user id or session token; each guest only changes their own lines, and every
+     * change is broadcast on {@code /topic/table/{tableToken}}.
+     */
+    @GetMapping("/table/{tableToken}")
+    public ResponseEntity<ApiResponse<CartResponse>> getTableCart(
+            @PathVariable String tableToken,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String sessionToken,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long menuVersion) {
+
+        logger.info("Getting shared cart - tableToken: {}, userId: {}, sessionToken: {}", tableToken, userId, sessionToken);
+
+        try {
+            CartResponse cart = cartService.getTableCart(tableToken, userId, sessionToken,
+                    CartView.of(since, menuVersion));
+            return versioned(ApiResponse.success(cart), cart);
+        } catch (Exception e) {
+            logger.error("Error getting shared cart", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error getting shared cart: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/table/{tableToken}/items")
+    public ResponseEntity<ApiResponse<CartResponse>> addToTableCart(
+            @PathVariable String tableToken,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String sessionToken,
+            @RequestParam(required = false) String guestName,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long menuVersion,
+            @Valid @RequestBody CartItemRequest cartItemRequest) {
+
+        logger.info("Adding item to shared cart - tableToken: {}, userId: {}, sessionToken: {}, menuItemId: {}",
+                tableToken, userId, sessionToken, cartItemRequest.getMenuItemId());
+
+        try {
+            CartResponse cart = cartService.addToTableCart(tableToken, userId, sessionToken, guestName, cartItemRequest,
+                    CartView.of(since, menuVersion));
+            return versioned(ApiResponse.success("Item added to shared cart successfully", cart), cart);
+        } catch (Exception e) {
+            logger.error("Error adding item to shared cart", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error adding item to shared cart: " + e.getMessage()));
+        }
+    }
+
+    @PutMapping("/table/{tableToken}/items/{itemId}")
+    public ResponseEntity<ApiResponse<CartResponse>> updateTableCartItem(
+            @PathVariable String tableToken,
+            @PathVariable Long itemId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String sessionToken,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long menuVersion,
+            @Valid @RequestBody CartItemRequest cartItemRequest) {
+
+        logger.info("Updating shared cart item - tableToken: {}, itemId: {}, userId: {}, sessionToken: {}",
+                tableToken, itemId, userId, sessionToken);
+
+        try {
+            CartResponse cart = cartService.updateTableCartItem(tableToken, userId, sessionToken, itemId,
+                    cartItemRequest, CartView.of(since, menuVersion));
+            return versioned(ApiResponse.success("Shared cart item updated successfully", cart), cart);
+        } catch (Exception e) {
+            logger.error("Error updating shared cart item", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error updating shared cart item: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/table/{tableToken}/items/{itemId}")
+    public ResponseEntity<ApiResponse<CartResponse>> removeFromTableCart(
+            @PathVariable String tableToken,
+            @PathVariable Long itemId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String sessionToken,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long menuVersion) {
+
+        logger.info("Removing item from shared cart - tableToken: {}, itemId: {}, userId: {}, sessionToken: {}",
+                tableToken, itemId, userId, sessionToken);
+
+        try {
+            CartResponse cart = cartService.removeFromTableCart(tableToken, userId, sessionToken, itemId,
+                    CartView.of(since, menuVersion));
+            return versioned(ApiResponse.success("Item removed from shared cart successfully", cart), cart);
+        } catch (Exception e) {
+            logger.error("Error removing item from shared cart", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error removing item from shared cart: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/table/{tableToken}/items")
+    public ResponseEntity<ApiResponse<CartResponse>> clearOwnTableCartLines(
+            @PathVariable String tableToken,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String sessionToken,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long menuVersion) {
+
+        logger.info("Clearing own shared cart lines - tableToken: {}, userId: {}, sessionToken: {}",
+                tableToken, userId, sessionToken);
+
+        try {
+            CartResponse cart = cartService.clearOwnTableCartLines(tableToken, userId, sessionToken,
+                    CartView.of(since, menuVersion));
+            return versioned(ApiResponse.success("Your shared cart items were removed", cart), cart);
+        } catch (Exception e) {
+            logger.error("Error clearing shared cart lines", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error clearing shared cart lines: " + e.getMessage()));
+        }
+    }
+
     @PostMapping("/merge")
     public ResponseEntity<ApiResponse<Void>> mergeCarts(
             @RequestParam String sessionToken,
@@ -134,4 +389,32 @@ public class CartController {
                     .body(ApiResponse.error("Error merging carts: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // ETags carry the bare cart version; weak and quoted forms are accepted back
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("If-Match must hold a cart version: " + ifMatch);
+        }
+    }
+
+    private static ResponseEntity<ApiResponse<CartResponse>> versioned(ApiResponse<CartResponse> body, CartResponse cart) {
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(cart.getVersion()))
+                .body(body);
+    }
+
+    private static ResponseEntity<ApiResponse<CartResponse>> versionConflict(CartVersionConflictException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .eTag(String.valueOf(e.getCurrentVersion()))
+                .body(ApiResponse.error(e.getMessage()));
+    }
+}
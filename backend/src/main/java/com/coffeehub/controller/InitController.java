@@ -7,9 +7,11 @@ import com.coffeehub.entity.MenuItem;
 import com.coffeehub.repository.RestaurantTableRepository;
 import com.coffeehub.repository.CategoryRepository;
 import com.coffeehub.repository.MenuItemRepository;
+import com.coffeehub.service.catalog.MenuChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -32,6 +34,9 @@ public class InitController {
     @Autowired
     private MenuItemRepository menuItemRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @PostMapping("/seed-tables")
     public ResponseEntity<ApiResponse<String>> seedTables() {
         logger.info("Seeding tables...");
@@ -198,6 +203,7 @@ public class InitController {
             items.add(quiche);
 
             menuItemRepository.saveAll(items);
+            eventPublisher.publishEvent(new MenuChangedEvent("menu seeded"));
 
             logger.info("Successfully seeded {} menu items", items.size());
             return ResponseEntity.ok(ApiResponse.success("Successfully seeded " + items.size() + " menu items into database"));
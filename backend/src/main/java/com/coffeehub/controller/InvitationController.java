@@ -5,9 +5,11 @@ import com.coffeehub.dto.request.InviteStaffRequest;
 import com.coffeehub.entity.User;
 import com.coffeehub.repository.UserRepository;
 import com.coffeehub.service.EmailService;
+import com.coffeehub.service.order.ChefChangedEvent;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -30,6 +32,7 @@ public class InvitationController {
     private final UserRepository userRepository;
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Admin sends invitation to chef/waiter
@@ -192,6 +195,9 @@ public class InvitationController {
             user.setInvitationToken(null); // Clear token (one-time use)
 
             userRepository.save(user);
+            if (user.getRole() == User.Role.CHEF) {
+                eventPublisher.publishEvent(new ChefChangedEvent(user.getId()));
+            }
 
             log.info("✅ Account activated successfully for: {}", user.getEmail());
 
@@ -1,17 +1,31 @@
 package com.coffeehub.controller;
 
+import com.coffeehub.dto.request.MenuScheduleRequest;
 import com.coffeehub.dto.response.ApiResponse;
 import com.coffeehub.dto.response.CategoryResponse;
+import com.coffeehub.dto.response.MenuFacetsResponse;
 import com.coffeehub.dto.response.MenuItemResponse;
+import com.coffeehub.dto.response.MenuScheduleResponse;
+import com.coffeehub.dto.response.MenuSuggestionResponse;
 import com.coffeehub.dto.response.ModifierResponse;
 import com.coffeehub.entity.Category;
 import com.coffeehub.entity.MenuItem;
+import com.coffeehub.entity.MenuSchedule;
 import com.coffeehub.entity.Modifier;
+import com.coffeehub.service.MenuPayloadCache;
+import com.coffeehub.service.MenuScheduleService;
 import com.coffeehub.service.MenuService;
+import com.coffeehub.service.MenuSuggestService;
+import com.coffeehub.service.catalog.MenuCatalog;
+import com.coffeehub.service.catalog.MenuPayload;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -28,14 +42,26 @@ public class MenuController {
     @Autowired
     private MenuService menuService;
 
+    @Autowired
+    private MenuPayloadCache menuPayloadCache;
+
+    @Autowired
+    private MenuSuggestService menuSuggestService;
+
+    @Autowired
+    private MenuScheduleService menuScheduleService;
+
     // Public endpoints
+    // List endpoints are served as pre-rendered bytes with ETag / If-None-Match support
     @GetMapping("/categories")
-    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getAllCategories() {
+    public ResponseEntity<?> getAllCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         logger.info("Fetching all categories");
 
         try {
-            List<CategoryResponse> categories = menuService.getAllCategories();
-            return ResponseEntity.ok(ApiResponse.success(categories));
+            MenuPayload payload = menuPayloadCache.get("categories", MenuCatalog::getActiveCategories);
+            return payloadResponse(payload, ifNoneMatch, acceptEncoding);
         } catch (Exception e) {
             logger.error("Error fetching categories", e);
             return ResponseEntity.internalServerError()
@@ -58,12 +84,14 @@ public class MenuController {
     }
 
     @GetMapping("/items")
-    public ResponseEntity<ApiResponse<List<MenuItemResponse>>> getAllMenuItems() {
+    public ResponseEntity<?> getAllMenuItems(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         logger.info("Fetching all menu items");
 
         try {
-            List<MenuItemResponse> menuItems = menuService.getAllMenuItems();
-            return ResponseEntity.ok(ApiResponse.success(menuItems));
+            MenuPayload payload = menuPayloadCache.get("items", MenuCatalog::getAvailableItems);
+            return payloadResponse(payload, ifNoneMatch, acceptEncoding);
         } catch (Exception e) {
             logger.error("Error fetching menu items", e);
             return ResponseEntity.internalServerError()
@@ -72,12 +100,18 @@ public class MenuController {
     }
 
     @GetMapping("/items/category/{categoryId}")
-    public ResponseEntity<ApiResponse<List<MenuItemResponse>>> getMenuItemsByCategory(@PathVariable Long categoryId) {
+    public ResponseEntity<?> getMenuItemsByCategory(
+            @PathVariable Long categoryId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         logger.info("Fetching menu items for category: {}", categoryId);
 
         try {
-            List<MenuItemResponse> menuItems = menuService.getMenuItemsByCategory(categoryId);
-            return ResponseEntity.ok(ApiResponse.success(menuItems));
+            // Only cache known categories so arbitrary ids cannot grow the cache
+            MenuPayload payload = menuService.categoryExists(categoryId)
+                    ? menuPayloadCache.get("items/category/" + categoryId, catalog -> catalog.getAvailableItemsByCategory(categoryId))
+                    : menuPayloadCache.render("items/category/" + categoryId, catalog -> catalog.getAvailableItemsByCategory(categoryId));
+            return payloadResponse(payload, ifNoneMatch, acceptEncoding);
         } catch (Exception e) {
             logger.error("Error fetching menu items for category: {}", categoryId, e);
             return ResponseEntity.badRequest()
@@ -119,13 +153,50 @@ public class MenuController {
         }
     }
 
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse<MenuFacetsResponse>> getMenuFacets(
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<Modifier.ModifierType> modifierType,
+            @RequestParam(required = false) List<String> priceBucket,
+            @RequestParam(defaultValue = "true") boolean includeItems) {
+        logger.debug("Fetching menu facets - categories: {}, modifier types: {}, price buckets: {}",
+                categoryId, modifierType, priceBucket);
+
+        try {
+            MenuFacetsResponse facets = menuService.getMenuFacets(categoryId, modifierType, priceBucket, includeItems);
+            return ResponseEntity.ok(ApiResponse.success(facets));
+        } catch (Exception e) {
+            logger.error("Error fetching menu facets", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error fetching menu facets: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<MenuSuggestionResponse>>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        logger.debug("Suggesting menu entries for prefix: {}", prefix);
+
+        try {
+            List<MenuSuggestionResponse> suggestions = menuSuggestService.suggest(prefix, limit);
+            return ResponseEntity.ok(ApiResponse.success(suggestions));
+        } catch (Exception e) {
+            logger.error("Error suggesting menu entries for prefix: {}", prefix, e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error suggesting menu entries: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/modifiers")
-    public ResponseEntity<ApiResponse<List<ModifierResponse>>> getAllModifiers() {
+    public ResponseEntity<?> getAllModifiers(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         logger.info("Fetching all modifiers");
 
         try {
-            List<ModifierResponse> modifiers = menuService.getAllModifiers();
-            return ResponseEntity.ok(ApiResponse.success(modifiers));
+            MenuPayload payload = menuPayloadCache.get("modifiers", MenuCatalog::getAvailableModifiers);
+            return payloadResponse(payload, ifNoneMatch, acceptEncoding);
         } catch (Exception e) {
             logger.error("Error fetching modifiers", e);
             return ResponseEntity.internalServerError()
@@ -134,12 +205,15 @@ public class MenuController {
     }
 
     @GetMapping("/modifiers/type/{type}")
-    public ResponseEntity<ApiResponse<List<ModifierResponse>>> getModifiersByType(@PathVariable Modifier.ModifierType type) {
+    public ResponseEntity<?> getModifiersByType(
+            @PathVariable Modifier.ModifierType type,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         logger.info("Fetching modifiers by type: {}", type);
 
         try {
-            List<ModifierResponse> modifiers = menuService.getModifiersByType(type);
-            return ResponseEntity.ok(ApiResponse.success(modifiers));
+            MenuPayload payload = menuPayloadCache.get("modifiers/type/" + type, catalog -> catalog.getAvailableModifiersByType(type));
+            return payloadResponse(payload, ifNoneMatch, acceptEncoding);
         } catch (Exception e) {
             logger.error("Error fetching modifiers for type: {}", type, e);
             return ResponseEntity.badRequest()
@@ -147,6 +221,27 @@ public class MenuController {
         }
     }
 
+    @GetMapping("/changes")
+    public ResponseEntity<?> getMenuChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        logger.info("Fetching menu changes since version: {}", since);
+
+        try {
+            // Polling tablets mostly ask with the current version, so deltas are cached per base version
+            Long baseVersion = menuService.getDeltaBaseVersion(since);
+            MenuPayload payload = baseVersion != null
+                    ? menuPayloadCache.get("changes/" + baseVersion, catalog -> menuService.getChangesSince(catalog, baseVersion))
+                    : menuPayloadCache.get("changes/full", catalog -> menuService.getChangesSince(catalog, null));
+            return payloadResponse(payload, ifNoneMatch, acceptEncoding);
+        } catch (Exception e) {
+            logger.error("Error fetching menu changes since version: {}", since, e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Error fetching menu changes"));
+        }
+    }
+
     // Admin endpoints
     @PostMapping("/categories")
     @PreAuthorize("hasRole('ADMIN')")
@@ -256,4 +351,108 @@ public class MenuController {
                     .body(ApiResponse.error("Error creating modifier: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/schedules")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<MenuScheduleResponse>>> getSchedules(
+            @RequestParam(required = false) MenuSchedule.TargetType targetType,
+            @RequestParam(required = false) Long targetId) {
+        logger.info("Fetching menu schedules (targetType: {}, targetId: {})", targetType, targetId);
+
+        try {
+            List<MenuScheduleResponse> schedules = targetType != null && targetId != null
+                    ? menuScheduleService.getSchedulesFor(targetType, targetId)
+                    : menuScheduleService.getAllSchedules();
+            return ResponseEntity.ok(ApiResponse.success(schedules));
+        } catch (Exception e) {
+            logger.error("Error fetching menu schedules", e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Error fetching menu schedules"));
+        }
+    }
+
+    @PostMapping("/schedules")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<MenuScheduleResponse>> createSchedule(
+            @Valid @RequestBody MenuScheduleRequest request) {
+        logger.info("Creating menu schedule for {} {}", request.getTargetType(), request.getTargetId());
+
+        try {
+            MenuScheduleResponse createdSchedule = menuScheduleService.createSchedule(request);
+            return ResponseEntity.ok(ApiResponse.success("Menu schedule created successfully", createdSchedule));
+        } catch (Exception e) {
+            logger.error("Error creating menu schedule", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error creating menu schedule: " + e.getMessage()));
+        }
+    }
+
+    @PutMapping("/schedules/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<MenuScheduleResponse>> updateSchedule(
+            @PathVariable Long id, @Valid @RequestBody MenuScheduleRequest request) {
+        logger.info("Updating menu schedule with id: {}", id);
+
+        try {
+            MenuScheduleResponse updatedSchedule = menuScheduleService.updateSchedule(id, request);
+            return ResponseEntity.ok(ApiResponse.success("Menu schedule updated successfully", updatedSchedule));
+        } catch (Exception e) {
+            logger.error("Error updating menu schedule with id: {}", id, e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error updating menu schedule: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/schedules/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> deleteSchedule(@PathVariable Long id) {
+        logger.info("Deleting menu schedule with id: {}", id);
+
+        try {
+            menuScheduleService.deleteSchedule(id);
+            return ResponseEntity.ok(ApiResponse.success("Menu schedule deleted successfully", null));
+        } catch (Exception e) {
+            logger.error("Error deleting menu schedule with id: {}", id, e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error deleting menu schedule: " + e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> payloadResponse(MenuPayload payload, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        if (payload.matches(ifNoneMatch, gzip)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(payload.getEtag(gzip))
+                    .cacheControl(CacheControl.noCache())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .header("X-Menu-Version", String.valueOf(payload.getCatalogVersion()))
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(payload.getEtag(gzip))
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header("X-Menu-Version", String.valueOf(payload.getCatalogVersion()));
+
+        if (gzip) {
+            // An explicit Content-Encoding makes the container skip its own compression
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.getGzip());
+        }
+        return builder.body(payload.getIdentity());
+    }
+
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").equalsIgnoreCase("q=0");
+            }
+        }
+        return false;
+    }
+}
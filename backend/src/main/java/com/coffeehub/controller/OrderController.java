@@ -2,6 +2,7 @@ package com.coffeehub.controller;
 
 import com.coffeehub.dto.request.OrderRequest;
 import com.coffeehub.dto.response.ApiResponse;
+import com.coffeehub.dto.response.KitchenBoardResponse;
 import com.coffeehub.dto.response.OrderResponse;
 import com.coffeehub.entity.Order;
 import com.coffeehub.service.OrderService;
@@ -47,7 +48,7 @@ public class OrderController {
     }
 
     @GetMapping("/{orderId}")
-    public ResponseEntity<ApiResponse<OrderResponse>> getOrderById(@PathVariable String orderId) {
+    public ResponseEntity<ApiResponse<OrderResponse>> getOrderById(@PathVariable Long orderId) {
         logger.info("Fetching order by id: {}", orderId);
 
         try {
@@ -113,6 +114,21 @@ public class OrderController {
         }
     }
 
+    @GetMapping("/kitchen/board")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CHEF')")
+    public ResponseEntity<ApiResponse<KitchenBoardResponse>> getKitchenBoard() {
+        logger.info("Fetching kitchen board");
+
+        try {
+            KitchenBoardResponse board = orderService.getKitchenBoard();
+            return ResponseEntity.ok(ApiResponse.success(board));
+        } catch (Exception e) {
+            logger.error("Error fetching kitchen board", e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Error fetching kitchen board"));
+        }
+    }
+
     @GetMapping("/delivery/active")
     @PreAuthorize("hasAnyRole('ADMIN', 'WAITER')")
     public ResponseEntity<ApiResponse<List<OrderResponse>>> getActiveDeliveryOrders() {
@@ -138,7 +154,7 @@ public class OrderController {
         logger.info("Updating order status - order: {}, status: {}, changedBy: {}", orderId, status, changedBy);
 
         try {
-            OrderResponse order = orderService.updateOrderStatus(orderId.toString(), status, changedBy, notes);
+            OrderResponse order = orderService.updateOrderStatus(orderId, status, changedBy, notes);
             return ResponseEntity.ok(ApiResponse.success("Order status updated successfully", order));
         } catch (Exception e) {
             logger.error("Error updating order status for order: {}", orderId, e);
@@ -150,7 +166,7 @@ public class OrderController {
     @PutMapping("/{orderId}/assign/chef")
     @PreAuthorize("hasAnyRole('ADMIN', 'CHEF')")
     public ResponseEntity<ApiResponse<OrderResponse>> assignOrderToChef(
-            @PathVariable String orderId,
+            @PathVariable Long orderId,
             @RequestParam Long chefId) {
 
         logger.info("Assigning order to chef - order: {}, chef: {}", orderId, chefId);
@@ -168,7 +184,7 @@ public class OrderController {
     @PutMapping("/{orderId}/assign/waiter")
     @PreAuthorize("hasAnyRole('ADMIN', 'WAITER')")
     public ResponseEntity<ApiResponse<OrderResponse>> assignOrderToWaiter(
-            @PathVariable String orderId,
+            @PathVariable Long orderId,
             @RequestParam Long waiterId) {
 
         logger.info("Assigning order to waiter - order: {}, waiter: {}", orderId, waiterId);
@@ -193,7 +209,7 @@ public class OrderController {
         logger.info("Updating payment status - order: {}, status: {}", orderId, paymentStatus);
 
         try {
-            OrderResponse order = orderService.updatePaymentStatus(orderId.toString(), paymentStatus, stripePaymentIntentId);
+            OrderResponse order = orderService.updatePaymentStatus(orderId, paymentStatus, stripePaymentIntentId);
             return ResponseEntity.ok(ApiResponse.success("Payment status updated successfully", order));
         } catch (Exception e) {
             logger.error("Error updating payment status for order: {}", orderId, e);
@@ -211,7 +227,7 @@ public class OrderController {
         logger.info("Cancelling order - order: {}, user: {}, reason: {}", orderId, userId, reason);
 
         try {
-            orderService.cancelOrder(orderId.toString(), userId, reason);
+            orderService.cancelOrder(orderId, userId, reason);
             return ResponseEntity.ok(ApiResponse.success("Order cancelled successfully", null));
         } catch (Exception e) {
             logger.error("Error cancelling order: {}", orderId, e);
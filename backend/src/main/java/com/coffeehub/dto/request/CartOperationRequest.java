@@ -0,0 +1,31 @@
+package com.coffeehub.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * One step of a batched cart change. ADD uses menuItemId; UPDATE and REMOVE address an
+ * existing line by itemId; CLEAR takes no fields.
+ */
+@Data
+public class CartOperationRequest {
+    @NotNull
+    private OperationType type;
+
+    private Long itemId;
+
+    private Long menuItemId;
+
+    @Positive
+    private Integer quantity;
+
+    private String specialInstructions;
+
+    private List<Long> modifierIds;
+
+    public enum OperationType {
+        ADD, UPDATE, REMOVE, CLEAR
+    }
+}
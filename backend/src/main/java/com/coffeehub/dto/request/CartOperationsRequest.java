@@ -0,0 +1,14 @@
+package com.coffeehub.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class CartOperationsRequest {
+    @NotEmpty
+    @Size(max = 50, message = "At most 50 operations can be applied at once")
+    private List<@Valid CartOperationRequest> operations;
+}
@@ -0,0 +1,43 @@
+package com.coffeehub.dto.request;
+
+import com.coffeehub.entity.MenuSchedule;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Schedule window for a category or menu item.
+ * Leave days empty for every day; an end time at or before the start time runs past midnight.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuScheduleRequest {
+
+    @Size(max = 100, message = "Schedule name must be at most 100 characters")
+    private String name;
+
+    @NotNull(message = "Target type is required")
+    private MenuSchedule.TargetType targetType;
+
+    @NotNull(message = "Target id is required")
+    private Long targetId;
+
+    private List<DayOfWeek> days;
+
+    @NotNull(message = "Start time is required")
+    private LocalTime startTime;
+
+    @NotNull(message = "End time is required")
+    private LocalTime endTime;
+
+    @Size(max = 100, message = "Location must be at most 100 characters")
+    private String location;
+
+    private Boolean active = true;
+}
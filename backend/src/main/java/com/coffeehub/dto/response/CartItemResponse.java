@@ -1,5 +1,6 @@
 package com.coffeehub.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -15,4 +16,17 @@ public class CartItemResponse {
     private List<ModifierResponse> modifiers;
     private BigDecimal totalPrice;
     private LocalDateTime createdAt;
+    private Boolean available;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String issue;
+    // Compact delta lines reference the menu by id instead of nesting it
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long menuItemId;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Long> modifierIds;
+    // Owner of the line in a shared table cart
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer guestNumber;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String guestName;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.coffeehub.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -12,6 +13,18 @@ public class CartResponse {
     private TableResponse table;
     private List<CartItemResponse> cartItems;
     private BigDecimal totalAmount;
+    // False when some line can no longer be ordered as it stands
+    private Boolean valid;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
+    private Long menuVersion;
+    private Boolean delta = false;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long sinceVersion;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Long> removedItemIds;
+    // The caller's own guest number in a shared table cart
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer guestNumber;
 }
\ No newline at end of file
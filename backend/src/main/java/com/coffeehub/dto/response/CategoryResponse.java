@@ -11,5 +11,6 @@ public class CategoryResponse {
     private String imageUrl;
     private Integer displayOrder;
     private Boolean active;
+    private Boolean scheduledOpen;
     private LocalDateTime createdAt;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.coffeehub.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountResponse {
+    private String value;
+    private String label;
+    private Integer count;
+    private Boolean selected;
+}
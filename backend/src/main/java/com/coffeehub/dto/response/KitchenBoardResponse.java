@@ -0,0 +1,11 @@
+package com.coffeehub.dto.response;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class KitchenBoardResponse {
+    // Sequence of the last change included; pushed updates with a higher sequence follow on
+    private Long sequence;
+    private List<OrderResponse> orders;
+}
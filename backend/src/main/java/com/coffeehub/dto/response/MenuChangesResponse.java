@@ -0,0 +1,19 @@
+package com.coffeehub.dto.response;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class MenuChangesResponse {
+    private Long version;
+    private Long since;
+    // True when the client's version is unknown or older than the compacted log;
+    // the lists then hold the whole menu and the client should replace its copy
+    private Boolean fullSnapshot;
+    private List<CategoryResponse> categories;
+    private List<MenuItemResponse> items;
+    private List<ModifierResponse> modifiers;
+    private List<Long> deletedCategoryIds;
+    private List<Long> deletedItemIds;
+    private List<Long> deletedModifierIds;
+}
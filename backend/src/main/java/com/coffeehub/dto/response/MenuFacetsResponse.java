@@ -0,0 +1,19 @@
+package com.coffeehub.dto.response;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Items matching the selected facet values, plus the count for every facet value.
+ * Each facet's counts ignore that facet's own selection.
+ */
+@Data
+public class MenuFacetsResponse {
+    private Long catalogVersion;
+    private Integer totalItems;
+    private List<MenuItemResponse> items;
+    private List<FacetCountResponse> categories;
+    private List<FacetCountResponse> modifierTypes;
+    private List<FacetCountResponse> priceBuckets;
+}
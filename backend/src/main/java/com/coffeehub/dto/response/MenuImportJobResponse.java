@@ -0,0 +1,27 @@
+package com.coffeehub.dto.response;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Status of a background menu import.
+ * {@code summary} is filled in once the job has completed.
+ */
+@Data
+public class MenuImportJobResponse {
+    private String jobId;
+    private String status;
+    private String format;
+    private Long itemsProcessed;
+    private Long itemsCreated;
+    private Long itemsSkipped;
+    private Long categoriesCreated;
+    private List<String> errors;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String failureMessage;
+    private MenuImportSummary summary;
+}
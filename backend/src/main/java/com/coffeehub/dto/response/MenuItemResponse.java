@@ -14,6 +14,7 @@ public class MenuItemResponse {
     private String imageUrl;
     private CategoryResponse category;
     private Boolean available;
+    private Boolean scheduledOpen;
     private Integer preparationTime;
     private LocalDateTime createdAt;
     private List<ModifierResponse> modifiers;
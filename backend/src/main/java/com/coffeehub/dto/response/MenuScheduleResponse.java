@@ -0,0 +1,23 @@
+package com.coffeehub.dto.response;
+
+import com.coffeehub.entity.MenuSchedule;
+import lombok.Data;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+public class MenuScheduleResponse {
+    private Long id;
+    private String name;
+    private MenuSchedule.TargetType targetType;
+    private Long targetId;
+    private String targetName;
+    private List<DayOfWeek> days;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private String location;
+    private Boolean active;
+    private LocalDateTime createdAt;
+}
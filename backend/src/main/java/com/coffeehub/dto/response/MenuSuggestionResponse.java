@@ -0,0 +1,13 @@
+package com.coffeehub.dto.response;
+
+import com.coffeehub.service.catalog.MenuChange;
+import lombok.Data;
+
+@Data
+public class MenuSuggestionResponse {
+    private MenuChange.EntityType type;
+    private Long id;
+    private String name;
+    private Long categoryId;
+    private Long popularity;
+}
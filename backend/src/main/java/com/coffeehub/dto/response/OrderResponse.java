@@ -1,6 +1,8 @@
 package com.coffeehub.dto.response;
 
 import com.coffeehub.entity.Order;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -8,7 +10,10 @@ import java.util.List;
 
 @Data
 public class OrderResponse {
+    // Order ids use all 64 bits, past what a JavaScript number holds exactly
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
+    private Integer ticketNumber;
     private UserResponse user;
     private TableResponse table;
     private Order.OrderType orderType;
@@ -20,6 +25,7 @@ public class OrderResponse {
     private String stripePaymentIntentId;
     private UserResponse assignedChef;
     private UserResponse assignedWaiter;
+    private LocalDateTime estimatedReadyAt;
     private List<OrderItemResponse> orderItems;
     private List<OrderStatusHistoryResponse> statusHistory;
     private LocalDateTime createdAt;
@@ -0,0 +1,11 @@
+package com.coffeehub.dto.response;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ReorderResponse {
+    private CartResponse cart;
+    private Integer addedItems;
+    private List<ReorderSkippedItemResponse> skippedItems;
+}
@@ -0,0 +1,15 @@
+package com.coffeehub.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderSkippedItemResponse {
+    private Long menuItemId;
+    private String menuItemName;
+    private Integer quantity;
+    private String reason;
+}
@@ -0,0 +1,21 @@
+package com.coffeehub.dto.websocket;
+
+import com.coffeehub.dto.response.OrderResponse;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KitchenBoardUpdateMessage {
+    public static final String ORDER_UPSERTED = "ORDER_UPSERTED";
+    public static final String ORDER_REMOVED = "ORDER_REMOVED";
+
+    private String type;
+    private Long sequence;
+    private String orderId;
+    // Set for upserts; removals only carry the id
+    private OrderResponse order;
+    private Long timestamp;
+}
@@ -10,6 +10,7 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class OrderUpdateMessage {
     private String orderId;
+    private Integer ticketNumber;
     private Order.OrderStatus status;
     private String message;
     private Long timestamp;
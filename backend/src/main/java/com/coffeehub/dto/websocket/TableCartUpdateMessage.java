@@ -0,0 +1,16 @@
+package com.coffeehub.dto.websocket;
+
+import com.coffeehub.dto.response.CartResponse;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TableCartUpdateMessage {
+    private String type = "CART_UPDATED";
+    private String tableToken;
+    private CartResponse cart;
+    private Long timestamp;
+}
@@ -44,6 +44,13 @@ public class CartItem {
     )
     private List<Modifier> modifiers = new ArrayList<>();
 
+    // Guest session or user owning the line in a shared table cart
+    @Column(name = "participant", length = 150)
+    private String participant;
+
+    @Column(name = "guest_name", length = 100)
+    private String guestName;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -0,0 +1,18 @@
+package com.coffeehub.entity;
+
+/**
+ * Table-backed id allocation for entities written in bulk. Each entity draws ids from its own
+ * row of {@code id_sequences}, {@link #ALLOCATION_SIZE} at a time with Hibernate's pooled
+ * optimizer, so ids are known before the insert and the inserts can be JDBC batched.
+ * IDENTITY columns need one round trip per row to learn the id, which turns batching off.
+ */
+final class IdSequences {
+
+    static final String TABLE = "id_sequences";
+    static final String NAME_COLUMN = "sequence_name";
+    static final String VALUE_COLUMN = "next_val";
+    static final int ALLOCATION_SIZE = 50;
+
+    private IdSequences() {
+    }
+}
@@ -0,0 +1,62 @@
+package com.coffeehub.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A recurring window during which a category or menu item can be ordered.
+ * An end time at or before the start time runs past midnight into the next day.
+ * Rules without a location apply everywhere; rules for a location replace them there.
+ */
+@Entity
+@Table(name = "menu_schedules")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuSchedule {
+    public static final int ALL_DAYS = 0x7F;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false)
+    private TargetType targetType;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    // Bit 0 is Monday, bit 6 is Sunday
+    @Column(name = "days_of_week", nullable = false)
+    private Integer daysOfWeek = ALL_DAYS;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalTime endTime;
+
+    private String location;
+
+    @Column(nullable = false)
+    private Boolean active = true;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public enum TargetType {
+        CATEGORY, MENU_ITEM
+    }
+}
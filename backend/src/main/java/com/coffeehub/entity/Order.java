@@ -1,9 +1,12 @@
 package com.coffeehub.entity;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.ToString;
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -11,14 +14,27 @@ import java.util.List;
 
 @Entity
 @Table(name = "orders")
+// To-one associations rendered by every order response; collections are batch fetched
+@NamedEntityGraph(name = Order.WITH_PARTICIPANTS, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("table"),
+        @NamedAttributeNode("assignedChef"),
+        @NamedAttributeNode("assignedWaiter")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Order {
+public class Order implements Persistable<Long> {
+    public static final String WITH_PARTICIPANTS = "Order.withParticipants";
+
+    // Assigned by OrderNumberService before insert, time ordered so new rows append to the index
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Short per-day number shown on kitchen screens and called out at the counter
+    @Column(name = "ticket_number")
+    private Integer ticketNumber;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -62,6 +78,10 @@ public class Order {
     @JoinColumn(name = "assigned_waiter_id")
     private User assignedWaiter;
 
+    // Recomputed by ChefScheduler whenever the assigned chef's queue changes
+    @Column(name = "estimated_ready_at")
+    private LocalDateTime estimatedReadyAt;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems = new ArrayList<>();
 
@@ -85,6 +105,24 @@ public class Order {
         updatedAt = LocalDateTime.now();
     }
 
+    // The id is set before save, so Spring Data cannot tell a new order from its id; without
+    // this it would merge, selecting the row before every insert
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostPersist
+    @PostLoad
+    protected void markPersisted() {
+        persisted = true;
+    }
+
     public enum OrderType {
         DINE_IN, TAKEOUT, DELIVERY
     }
@@ -0,0 +1,16 @@
+package com.coffeehub.exception;
+
+public class CartVersionConflictException extends RuntimeException {
+
+    private final long currentVersion;
+
+    public CartVersionConflictException(long expectedVersion, long currentVersion) {
+        super("Cart has changed since version " + expectedVersion + " (now " + currentVersion
+                + "); reload the cart and retry");
+        this.currentVersion = currentVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
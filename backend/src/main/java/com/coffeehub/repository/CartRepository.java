@@ -1,6 +1,7 @@
 package com.coffeehub.repository;
 
 import com.coffeehub.entity.Cart;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,15 +21,17 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     Optional<Cart> findBySessionTokenAndTableId(String sessionToken, Long tableId);
 
-    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.menuItem LEFT JOIN FETCH ci.modifiers WHERE c.user.id = :userId")
+    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.menuItem WHERE c.user.id = :userId")
     Optional<Cart> findByUserIdWithItems(@Param("userId") Long userId);
 
-    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.menuItem LEFT JOIN FETCH ci.modifiers WHERE c.sessionToken = :sessionToken")
+    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.menuItem WHERE c.sessionToken = :sessionToken")
     Optional<Cart> findBySessionTokenWithItems(@Param("sessionToken") String sessionToken);
 
+    @EntityGraph(attributePaths = {"user", "table", "cartItems", "cartItems.menuItem"})
     @Query("SELECT c FROM Cart c WHERE c.user.id = :userId AND c.table.id = :tableId")
     Optional<Cart> findByUserAndTable(@Param("userId") Long userId, @Param("tableId") Long tableId);
 
+    @EntityGraph(attributePaths = {"user", "table", "cartItems", "cartItems.menuItem"})
     @Query("SELECT c FROM Cart c WHERE c.sessionToken = :sessionToken AND c.table.id = :tableId")
     Optional<Cart> findBySessionTokenAndTable(@Param("sessionToken") String sessionToken, @Param("tableId") Long tableId);
 
@@ -0,0 +1,17 @@
+package com.coffeehub.repository;
+
+import com.coffeehub.entity.MenuSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MenuScheduleRepository extends JpaRepository<MenuSchedule, Long> {
+
+    List<MenuSchedule> findByActiveTrue();
+
+    List<MenuSchedule> findAllByOrderByTargetTypeAscTargetIdAscStartTimeAsc();
+
+    List<MenuSchedule> findByTargetTypeAndTargetId(MenuSchedule.TargetType targetType, Long targetId);
+}
@@ -1,5 +1,6 @@
 package com.coffeehub.repository;
 
+import com.coffeehub.entity.Order;
 import com.coffeehub.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -16,9 +17,18 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     @Query("SELECT oi FROM OrderItem oi LEFT JOIN FETCH oi.menuItem LEFT JOIN FETCH oi.modifiers WHERE oi.order.id = :orderId")
     List<OrderItem> findByOrderIdWithDetails(@Param("orderId") Long orderId);
 
+    // One row per line and modifier (null modifier for plain lines), limited to the user's own order
+    @Query("SELECT oi.id, oi.menuItem.id, oi.menuItemName, oi.quantity, oi.specialInstructions, oim.modifier.id " +
+            "FROM OrderItem oi LEFT JOIN oi.modifiers oim " +
+            "WHERE oi.order.id = :orderId AND oi.order.user.id = :userId ORDER BY oi.id")
+    List<Object[]> findReorderRows(@Param("orderId") Long orderId, @Param("userId") Long userId);
+
     @Query("SELECT oi FROM OrderItem oi WHERE oi.order.id IN :orderIds")
     List<OrderItem> findByOrderIds(@Param("orderIds") List<Long> orderIds);
 
     @Query("SELECT COUNT(oi) FROM OrderItem oi WHERE oi.order.id = :orderId")
     Long countByOrderId(@Param("orderId") Long orderId);
+
+    @Query("SELECT oi.menuItem.id, SUM(oi.quantity) FROM OrderItem oi WHERE oi.order.status <> :excludedStatus GROUP BY oi.menuItem.id")
+    List<Object[]> sumQuantityByMenuItem(@Param("excludedStatus") Order.OrderStatus excludedStatus);
 }
\ No newline at end of file
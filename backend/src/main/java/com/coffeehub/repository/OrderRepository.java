@@ -3,6 +3,7 @@ package com.coffeehub.repository;
 import com.coffeehub.entity.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,10 +15,19 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, String> {
+public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    // Read paths load user, table and assigned staff in the same select via the entity graph;
+    // items, modifiers and status history are batch fetched (hibernate.default_batch_fetch_size)
+
+    @Override
+    @EntityGraph(Order.WITH_PARTICIPANTS)
+    Optional<Order> findById(Long id);
+
+    @EntityGraph(Order.WITH_PARTICIPANTS)
     List<Order> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    @EntityGraph(Order.WITH_PARTICIPANTS)
     List<Order> findByStatus(Order.OrderStatus status);
 
     List<Order> findByPaymentStatus(Order.PaymentStatus paymentStatus);
@@ -28,18 +38,19 @@ public interface OrderRepository extends JpaRepository<Order, String> {
 
     List<Order> findByAssignedWaiterId(Long waiterId);
 
+    @EntityGraph(Order.WITH_PARTICIPANTS)
     @Query("SELECT o FROM Order o WHERE o.status IN :statuses ORDER BY o.createdAt DESC")
     List<Order> findByStatusIn(@Param("statuses") List<Order.OrderStatus> statuses);
 
-    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.menuItem LEFT JOIN FETCH oi.modifiers WHERE o.id = :orderId")
+    // Only one bag collection can be join fetched; item modifiers and history are batch fetched
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.menuItem WHERE o.id = :orderId")
     Optional<Order> findByIdWithItems(@Param("orderId") Long orderId);
 
-    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.menuItem LEFT JOIN FETCH o.statusHistory WHERE o.id = :orderId")
-    Optional<Order> findByIdWithItemsAndHistory(@Param("orderId") Long orderId);
-
+    @EntityGraph(Order.WITH_PARTICIPANTS)
     @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
     Page<Order> findByUserIdPaginated(@Param("userId") Long userId, Pageable pageable);
 
+    @EntityGraph(Order.WITH_PARTICIPANTS)
     @Query("SELECT o FROM Order o WHERE " +
             "(:status IS NULL OR o.status = :status) AND " +
             "(:paymentStatus IS NULL OR o.paymentStatus = :paymentStatus) AND " +
@@ -55,6 +66,7 @@ public interface OrderRepository extends JpaRepository<Order, String> {
             @Param("endDate") LocalDateTime endDate,
             Pageable pageable);
 
+    @EntityGraph(Order.WITH_PARTICIPANTS)
     @Query("SELECT o FROM Order o WHERE o.status IN ('PENDING', 'CONFIRMED', 'PREPARING', 'READY') ORDER BY " +
             "CASE o.status " +
             "WHEN 'PREPARING' THEN 1 " +
@@ -64,9 +76,13 @@ public interface OrderRepository extends JpaRepository<Order, String> {
             "ELSE 5 END, o.createdAt ASC")
     List<Order> findActiveKitchenOrders();
 
+    @EntityGraph(Order.WITH_PARTICIPANTS)
     @Query("SELECT o FROM Order o WHERE o.status IN ('READY', 'OUT_FOR_DELIVERY') ORDER BY o.createdAt ASC")
     List<Order> findActiveDeliveryOrders();
 
+    @Query("SELECT MAX(o.ticketNumber) FROM Order o WHERE o.createdAt >= :since")
+    Integer findMaxTicketNumberSince(@Param("since") LocalDateTime since);
+
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
     Long countByStatus(@Param("status") Order.OrderStatus status);
 
@@ -79,6 +95,7 @@ public interface OrderRepository extends JpaRepository<Order, String> {
     @Query("SELECT o FROM Order o WHERE o.stripePaymentIntentId = :paymentIntentId")
     Optional<Order> findByStripePaymentIntentId(@Param("paymentIntentId") String paymentIntentId);
 
+    @EntityGraph(Order.WITH_PARTICIPANTS)
     @Query("SELECT o FROM Order o WHERE o.table.id = :tableId AND o.status NOT IN ('COMPLETED', 'CANCELLED')")
     List<Order> findActiveOrdersByTable(@Param("tableId") Long tableId);
 
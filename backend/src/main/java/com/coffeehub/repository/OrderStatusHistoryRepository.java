@@ -1,5 +1,6 @@
 package com.coffeehub.repository;
 
+import com.coffeehub.entity.Order;
 import com.coffeehub.entity.OrderStatusHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -19,6 +20,11 @@ public interface OrderStatusHistoryRepository extends JpaRepository<OrderStatusH
     @Query("SELECT osh FROM OrderStatusHistory osh WHERE osh.order.id IN :orderIds")
     List<OrderStatusHistory> findByOrderIds(@Param("orderIds") List<Long> orderIds);
 
+    // One (order id, time) row per order: when it last entered the status
+    @Query("SELECT osh.order.id, MAX(osh.createdAt) FROM OrderStatusHistory osh " +
+            "WHERE osh.order.id IN :orderIds AND osh.status = :status GROUP BY osh.order.id")
+    List<Object[]> findLatestStatusTimes(@Param("orderIds") List<Long> orderIds, @Param("status") Order.OrderStatus status);
+
     @Query("SELECT osh FROM OrderStatusHistory osh WHERE osh.changedBy.id = :userId ORDER BY osh.createdAt DESC")
     List<OrderStatusHistory> findByChangedBy(@Param("userId") Long userId);
 }
\ No newline at end of file
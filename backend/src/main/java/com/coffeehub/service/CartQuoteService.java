@@ -0,0 +1,127 @@
+package com.coffeehub.service;
+
+import com.coffeehub.dto.request.CartItemRequest;
+import com.coffeehub.dto.response.MenuItemResponse;
+import com.coffeehub.dto.response.ModifierResponse;
+import com.coffeehub.exception.ValidationException;
+import com.coffeehub.service.cart.CartLine;
+import com.coffeehub.service.cart.CartQuote;
+import com.coffeehub.service.cart.CartState;
+import com.coffeehub.service.catalog.MenuCatalog;
+import com.coffeehub.service.pricing.PriceTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prices and validates carts against the catalog snapshot.
+ * A cart's quote is cached on the cart and reused until the cart changes or a new catalog is
+ * published, so rendering an unchanged cart reprices nothing. Checkout revalidates all lines
+ * in one pass and reports every problem at once.
+ */
+@Service
+public class CartQuoteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartQuoteService.class);
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    /** The cart's quote for the given catalog, computed only if the cached one is out of date. Caller holds the cart lock. */
+    public CartQuote quote(CartState cart, MenuCatalog catalog) {
+        CartQuote quote = cart.getQuote();
+        if (quote != null && quote.isFor(cart.getVersion(), catalog.getVersion())) {
+            return quote;
+        }
+        quote = compute(cart, catalog);
+        cart.setQuote(quote);
+        return quote;
+    }
+
+    /**
+     * Throws a {@link ValidationException} naming every line of the quote that cannot be
+     * ordered, or does nothing when all lines are good.
+     */
+    public void requireValid(CartState cart, CartQuote quote) {
+        if (quote.isValid()) {
+            return;
+        }
+        List<String> problems = new ArrayList<>();
+        for (CartLine line : cart.getLines()) {
+            CartQuote.LineQuote lineQuote = quote.line(line.getId());
+            if (lineQuote != null && !lineQuote.isValid()) {
+                problems.add("item " + line.getId() + ": " + lineQuote.getIssue());
+            }
+        }
+        throw new ValidationException("Cart has items that cannot be ordered - " + String.join("; ", problems));
+    }
+
+    /** Checks all order lines against the catalog in one pass and reports every problem together. */
+    public void validateOrderLines(List<CartItemRequest> items, MenuCatalog catalog) {
+        List<String> problems = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            CartItemRequest item = items.get(i);
+            String issue = item.getMenuItemId() == null
+                    ? "menu item is required"
+                    : item.getQuantity() == null || item.getQuantity() < 1
+                    ? "quantity must be at least 1"
+                    : lineIssue(catalog, item.getMenuItemId(),
+                            item.getModifierIds() != null ? item.getModifierIds() : List.of());
+            if (issue != null) {
+                problems.add("line " + (i + 1) + ": " + issue);
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new ValidationException("Order has items that cannot be ordered - " + String.join("; ", problems));
+        }
+    }
+
+    /** Why the item with these modifiers cannot be ordered from the catalog right now, or null. */
+    public String lineIssue(MenuCatalog catalog, long menuItemId, List<Long> modifierIds) {
+        MenuItemResponse item = catalog.findItem(menuItemId);
+        if (item == null) {
+            return "no longer on the menu";
+        }
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return item.getName() + " is not available";
+        }
+        if (item.getCategory() != null && !Boolean.TRUE.equals(item.getCategory().getActive())) {
+            return item.getName() + " is in an inactive category";
+        }
+        if (item.getCategory() != null && !catalog.getScheduleSlot().isOpen(item.getCategory().getId(), menuItemId)) {
+            return item.getName() + " is not being served right now";
+        }
+        for (Long modifierId : modifierIds) {
+            ModifierResponse modifier = modifierId != null ? catalog.findModifier(modifierId) : null;
+            if (modifier == null || !Boolean.TRUE.equals(modifier.getAvailable())) {
+                return "modifier " + modifierId + " is not available";
+            }
+        }
+        return catalog.getModifierCompatibility().check(menuItemId, modifierIds);
+    }
+
+    private CartQuote compute(CartState cart, MenuCatalog catalog) {
+        PriceTable prices = catalog.getPriceTable();
+        Map<Long, CartQuote.LineQuote> lines = new HashMap<>();
+        long total = 0;
+        int invalid = 0;
+        for (CartLine line : cart.getLines()) {
+            long lineCents = pricingEngine.cartLineCents(prices, line);
+            String issue = lineIssue(catalog, line.getMenuItemId(), line.getModifierIds());
+            if (issue != null) {
+                invalid++;
+            }
+            lines.put(line.getId(), new CartQuote.LineQuote(pricingEngine.cartBaseCents(prices, line), lineCents, issue));
+            total = Math.addExact(total, lineCents);
+        }
+        logger.debug("Quoted cart {} at version {} against catalog {}: {} lines, {} invalid",
+                cart.getId(), cart.getVersion(), catalog.getVersion(), lines.size(), invalid);
+        return new CartQuote(cart.getVersion(), catalog.getVersion(), lines, total, invalid);
+    }
+}
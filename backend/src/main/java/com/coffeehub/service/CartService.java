@@ -1,353 +1,668 @@
 package com.coffeehub.service;
 
 import com.coffeehub.dto.request.CartItemRequest;
-import com.coffeehub.dto.response.ApiResponse;
+import com.coffeehub.dto.request.CartOperationRequest;
 import com.coffeehub.dto.response.CartItemResponse;
 import com.coffeehub.dto.response.CartResponse;
 import com.coffeehub.dto.response.MenuItemResponse;
 import com.coffeehub.dto.response.ModifierResponse;
-import com.coffeehub.dto.response.TableResponse;
-import com.coffeehub.dto.response.UserResponse;
-import com.coffeehub.entity.*;
+import com.coffeehub.dto.response.ReorderResponse;
+import com.coffeehub.dto.response.ReorderSkippedItemResponse;
 import com.coffeehub.exception.ResourceNotFoundException;
 import com.coffeehub.exception.ValidationException;
-import com.coffeehub.repository.CartItemRepository;
-import com.coffeehub.repository.CartRepository;
-import com.coffeehub.repository.MenuItemRepository;
-import com.coffeehub.repository.ModifierRepository;
+import com.coffeehub.repository.OrderItemRepository;
+import com.coffeehub.service.cart.CartKey;
+import com.coffeehub.service.cart.CartLine;
+import com.coffeehub.service.cart.CartQuote;
+import com.coffeehub.service.cart.CartState;
+import com.coffeehub.service.cart.CartView;
+import com.coffeehub.service.catalog.MenuCatalog;
+import com.coffeehub.service.pricing.Money;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
-import java.util.stream.Collectors;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Cart operations on the in-memory {@link CartStore}. Menu items and modifiers are resolved
+ * from the catalog snapshot, so a cart mutation needs no database round trip; the store
+ * persists the result in the background.
+ */
 @Service
-@Transactional
 public class CartService {
 
     private static final Logger logger = LoggerFactory.getLogger(CartService.class);
 
     @Autowired
-    private CartRepository cartRepository;
+    private CartStore cartStore;
 
     @Autowired
-    private CartItemRepository cartItemRepository;
+    private CartQuoteService cartQuoteService;
 
     @Autowired
-    private MenuItemRepository menuItemRepository;
+    private MenuCatalogService menuCatalogService;
 
     @Autowired
-    private ModifierRepository modifierRepository;
+    private TableService tableService;
 
     @Autowired
-    private UserService userService;
+    private WebSocketService webSocketService;
 
     @Autowired
-    private TableService tableService;
+    private OrderItemRepository orderItemRepository;
 
-    public CartResponse getOrCreateCart(Long userId, String sessionToken, Long tableId) {
+    public CartResponse getOrCreateCart(Long userId, String sessionToken, Long tableId, CartView view) {
         logger.info("Getting or creating cart for user: {}, session: {}, table: {}", userId, sessionToken, tableId);
 
-        Cart cart;
-        if (userId != null) {
-            cart = getOrCreateUserCart(userId, tableId);
-        } else if (sessionToken != null) {
-            cart = getOrCreateSessionCart(sessionToken, tableId);
-        } else {
-            throw new ValidationException("Either userId or sessionToken must be provided");
-        }
-
-        return convertToCartResponse(cart);
+        return cartStore.read(cartKey(userId, sessionToken, tableId), true, cart -> render(cart, view));
     }
 
-    public CartResponse addItemToCart(Long userId, String sessionToken, Long tableId, CartItemRequest cartItemRequest) {
+    /**
+     * Adding only increases quantities, so a stale {@code expectedVersion} does not reject it:
+     * the item is added to the cart as it is now.
+     */
+    public CartResponse addItemToCart(Long userId, String sessionToken, Long tableId, CartItemRequest cartItemRequest,
+                                      Long expectedVersion, CartView view) {
         logger.info("Adding item to cart - user: {}, session: {}, table: {}, item: {}",
                 userId, sessionToken, tableId, cartItemRequest.getMenuItemId());
 
-        Cart cart = getOrCreateCartInternal(userId, sessionToken, tableId);
-        MenuItem menuItem = getValidMenuItem(cartItemRequest.getMenuItemId());
+        MenuCatalog catalog = menuCatalogService.getCatalog();
+        MenuItemResponse menuItem = getValidMenuItem(catalog, cartItemRequest.getMenuItemId());
+        List<Long> modifierIds = resolveModifierIds(catalog, cartItemRequest.getModifierIds());
+        checkModifiers(catalog, menuItem.getId(), modifierIds);
 
-        // Check if item already exists in cart
-        Optional<CartItem> existingCartItem = cartItemRepository.findByCartAndMenuItemWithDetails(
-                cart.getId(), cartItemRequest.getMenuItemId());
-
-        CartItem cartItem;
-        if (existingCartItem.isPresent()) {
-            cartItem = existingCartItem.get();
-            cartItem.setQuantity(cartItem.getQuantity() + cartItemRequest.getQuantity());
-        } else {
-            cartItem = new CartItem();
-            cartItem.setCart(cart);
-            cartItem.setMenuItem(menuItem);
-            cartItem.setQuantity(cartItemRequest.getQuantity());
-            cartItem.setPrice(menuItem.getPrice());
-            cartItem.setSpecialInstructions(cartItemRequest.getSpecialInstructions());
-
-            // Add modifiers if provided
-            if (cartItemRequest.getModifierIds() != null && !cartItemRequest.getModifierIds().isEmpty()) {
-                List<Modifier> modifiers = modifierRepository.findAvailableModifiersByIds(cartItemRequest.getModifierIds());
-                cartItem.setModifiers(modifiers);
-            }
+        return cartStore.update(cartKey(userId, sessionToken, tableId), true, expectedVersion, true, cart -> {
+            addLine(cart, menuItem, cartItemRequest.getQuantity(), cartItemRequest.getSpecialInstructions(), modifierIds);
+            logger.info("Item added to cart successfully - cart id: {}, item id: {}", cart.getId(), menuItem.getId());
+            return render(cart, view);
+        });
+    }
 
-            cart.addCartItem(cartItem);
-        }
+    public CartResponse updateCartItem(Long userId, String sessionToken, Long tableId, Long itemId,
+                                       CartItemRequest cartItemRequest, Long expectedVersion, CartView view) {
+        logger.info("Updating cart item - user: {}, session: {}, table: {}, item: {}",
+                userId, sessionToken, tableId, itemId);
 
-        Cart savedCart = cartRepository.save(cart);
-        logger.info("Item added to cart successfully - cart id: {}, item id: {}", cart.getId(), cartItemRequest.getMenuItemId());
+        List<Long> modifierIds = cartItemRequest.getModifierIds() != null
+                ? resolveModifierIds(menuCatalogService.getCatalog(), cartItemRequest.getModifierIds())
+                : null;
 
-        return convertToCartResponse(savedCart);
+        return cartStore.update(cartKey(userId, sessionToken, tableId), false, expectedVersion, false, cart -> {
+            updateLine(cart, itemId, cartItemRequest.getQuantity(), cartItemRequest.getSpecialInstructions(), modifierIds);
+            logger.info("Cart item updated successfully - cart id: {}, item id: {}", cart.getId(), itemId);
+            return render(cart, view);
+        });
     }
 
-    public CartResponse updateCartItem(Long userId, String sessionToken, Long tableId, Long itemId, CartItemRequest cartItemRequest) {
-        logger.info("Updating cart item - user: {}, session: {}, table: {}, item: {}",
+    public CartResponse removeItemFromCart(Long userId, String sessionToken, Long tableId, Long itemId,
+                                           Long expectedVersion, CartView view) {
+        logger.info("Removing item from cart - user: {}, session: {}, table: {}, item: {}",
                 userId, sessionToken, tableId, itemId);
 
-        Cart cart = getCartInternal(userId, sessionToken, tableId);
-        CartItem cartItem = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart item not found with id: " + itemId));
+        return cartStore.update(cartKey(userId, sessionToken, tableId), false, expectedVersion, false, cart -> {
+            removeLine(cart, itemId);
+            logger.info("Item removed from cart successfully - cart id: {}, item id: {}", cart.getId(), itemId);
+            return render(cart, view);
+        });
+    }
+
+    public CartResponse clearCart(Long userId, String sessionToken, Long tableId, Long expectedVersion,
+                                  CartView view) {
+        logger.info("Clearing cart - user: {}, session: {}, table: {}", userId, sessionToken, tableId);
+
+        return cartStore.update(cartKey(userId, sessionToken, tableId), false, expectedVersion, false, cart -> {
+            cart.clearLines();
+            logger.info("Cart cleared successfully - cart id: {}", cart.getId());
+            return render(cart, view);
+        });
+    }
 
-        if (!cartItem.getCart().getId().equals(cart.getId())) {
-            throw new ValidationException("Cart item does not belong to the specified cart");
+    /**
+     * Applies an ordered list of add / update / remove / clear operations to one cart and
+     * returns the result. Menu items and modifiers are resolved up front; the operations are
+     * applied under a single cart lock and either all take effect or none do. A stale
+     * {@code expectedVersion} is only tolerated when every operation is an add.
+     */
+    public CartResponse applyOperations(Long userId, String sessionToken, Long tableId,
+                                        List<CartOperationRequest> operations, Long expectedVersion,
+                                        CartView view) {
+        logger.info("Applying {} cart operations - user: {}, session: {}, table: {}",
+                operations.size(), userId, sessionToken, tableId);
+
+        MenuCatalog catalog = menuCatalogService.getCatalog();
+        List<MenuItemResponse> menuItems = new ArrayList<>(operations.size());
+        List<List<Long>> modifierIds = new ArrayList<>(operations.size());
+        boolean adds = false;
+        boolean addsOnly = true;
+        for (int i = 0; i < operations.size(); i++) {
+            CartOperationRequest operation = operations.get(i);
+            MenuItemResponse menuItem = null;
+            List<Long> resolved = operation.getModifierIds() != null
+                    ? resolveModifierIds(catalog, operation.getModifierIds())
+                    : null;
+            try {
+                validateOperation(operation);
+                if (operation.getType() == CartOperationRequest.OperationType.ADD) {
+                    menuItem = getValidMenuItem(catalog, operation.getMenuItemId());
+                    checkModifiers(catalog, menuItem.getId(), resolved != null ? resolved : List.of());
+                    adds = true;
+                } else {
+                    addsOnly = false;
+                }
+            } catch (ResourceNotFoundException | ValidationException e) {
+                throw new ValidationException("Operation " + (i + 1) + ": " + e.getMessage());
+            }
+            menuItems.add(menuItem);
+            modifierIds.add(resolved);
         }
 
-        cartItem.setQuantity(cartItemRequest.getQuantity());
-        cartItem.setSpecialInstructions(cartItemRequest.getSpecialInstructions());
+        return cartStore.update(cartKey(userId, sessionToken, tableId), adds, expectedVersion, addsOnly, cart -> {
+            List<CartLine> before = cart.copyLines();
+            int index = 0;
+            try {
+                for (; index < operations.size(); index++) {
+                    CartOperationRequest operation = operations.get(index);
+                    switch (operation.getType()) {
+                        case ADD -> addLine(cart, menuItems.get(index), operation.getQuantity(),
+                                operation.getSpecialInstructions(),
+                                modifierIds.get(index) != null ? modifierIds.get(index) : List.of());
+                        case UPDATE -> updateLine(cart, operation.getItemId(), operation.getQuantity(),
+                                operation.getSpecialInstructions(), modifierIds.get(index));
+                        case REMOVE -> removeLine(cart, operation.getItemId());
+                        case CLEAR -> cart.clearLines();
+                    }
+                }
+            } catch (ResourceNotFoundException | ValidationException e) {
+                cart.restoreLines(before);
+                throw new ValidationException("Operation " + (index + 1) + ": " + e.getMessage());
+            }
+            logger.info("Applied {} cart operations - cart id: {}", operations.size(), cart.getId());
+            return render(cart, view);
+        });
+    }
+
+    /**
+     * Copies the lines of one of the user's past orders into their cart in a single cart update.
+     * The order is read with one projection query; each line is checked against the current
+     * catalog, and lines that can no longer be ordered are skipped and reported.
+     */
+    public ReorderResponse reorder(Long orderId, Long userId, Long tableId, CartView view) {
+        logger.info("Reordering order {} for user: {}, table: {}", orderId, userId, tableId);
+
+        if (userId == null) {
+            throw new ValidationException("Only signed-in customers can reorder");
+        }
 
-        // Update modifiers
-        if (cartItemRequest.getModifierIds() != null) {
-            List<Modifier> modifiers = modifierRepository.findAvailableModifiersByIds(cartItemRequest.getModifierIds());
-            cartItem.setModifiers(modifiers);
+        Map<Long, Object[]> orderLines = new LinkedHashMap<>();
+        Map<Long, List<Long>> orderLineModifiers = new HashMap<>();
+        for (Object[] row : orderItemRepository.findReorderRows(orderId, userId)) {
+            Long orderItemId = (Long) row[0];
+            orderLines.putIfAbsent(orderItemId, row);
+            List<Long> modifiers = orderLineModifiers.computeIfAbsent(orderItemId, id -> new ArrayList<>());
+            if (row[5] != null) {
+                modifiers.add((Long) row[5]);
+            }
+        }
+        if (orderLines.isEmpty()) {
+            throw new ResourceNotFoundException("Order not found with id: " + orderId);
         }
 
-        Cart savedCart = cartRepository.save(cart);
-        logger.info("Cart item updated successfully - cart id: {}, item id: {}", cart.getId(), itemId);
+        MenuCatalog catalog = menuCatalogService.getCatalog();
+        List<ReorderLine> accepted = new ArrayList<>();
+        List<ReorderSkippedItemResponse> skipped = new ArrayList<>();
+        for (Map.Entry<Long, Object[]> entry : orderLines.entrySet()) {
+            Object[] row = entry.getValue();
+            Long menuItemId = (Long) row[1];
+            Integer quantity = (Integer) row[3];
+            List<Long> modifierIds = orderLineModifiers.get(entry.getKey());
+            String issue = cartQuoteService.lineIssue(catalog, menuItemId, modifierIds);
+            if (issue != null) {
+                skipped.add(new ReorderSkippedItemResponse(menuItemId, (String) row[2], quantity, issue));
+                continue;
+            }
+            accepted.add(new ReorderLine(catalog.findItem(menuItemId), quantity, (String) row[4], modifierIds));
+        }
 
-        return convertToCartResponse(savedCart);
+        CartResponse cartResponse = cartStore.update(CartKey.forUser(userId, tableId), true, cart -> {
+            for (ReorderLine line : accepted) {
+                addLine(cart, line.menuItem(), line.quantity(), line.specialInstructions(), line.modifierIds());
+            }
+            return render(cart, view);
+        });
+        logger.info("Reordered order {} - added: {}, skipped: {}", orderId, accepted.size(), skipped.size());
+
+        ReorderResponse response = new ReorderResponse();
+        response.setCart(cartResponse);
+        response.setAddedItems(accepted.size());
+        response.setSkippedItems(skipped);
+        return response;
     }
 
-    public CartResponse removeItemFromCart(Long userId, String sessionToken, Long tableId, Long itemId) {
-        logger.info("Removing item from cart - user: {}, session: {}, table: {}, item: {}",
-                userId, sessionToken, tableId, itemId);
+    /**
+     * Revalidates every line of the cart against the current catalog in one pass before
+     * checkout. Returns the cart when all lines can be ordered, otherwise throws a
+     * {@link ValidationException} naming each line that cannot.
+     */
+    public CartResponse validateForCheckout(Long userId, String sessionToken, Long tableId) {
+        logger.info("Validating cart for checkout - user: {}, session: {}, table: {}", userId, sessionToken, tableId);
+
+        return cartStore.read(cartKey(userId, sessionToken, tableId), false, cart -> {
+            cartQuoteService.requireValid(cart, cartQuoteService.quote(cart, menuCatalogService.getCatalog()));
+            return convertToCartResponse(cart);
+        });
+    }
 
-        Cart cart = getCartInternal(userId, sessionToken, tableId);
-        CartItem cartItem = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart item not found with id: " + itemId));
+    /**
+     * Moves a guest's session carts into the user's carts, one per table. Each session cart is
+     * taken out of the store once and folded into the user cart under a single lock: lines are
+     * matched by menu item and modifier set through a hash index, so the merge is linear in the
+     * number of lines. Both carts reach the database in the next flush batch.
+     */
+    public void mergeCarts(String sessionToken, Long userId) {
+        logger.info("Merging carts - session: {}, user: {}", sessionToken, userId);
 
-        if (!cartItem.getCart().getId().equals(cart.getId())) {
-            throw new ValidationException("Cart item does not belong to the specified cart");
+        for (Long tableId : cartStore.findSessionCartTables(sessionToken)) {
+            List<CartLine> sessionLines = cartStore.remove(CartKey.forSession(sessionToken, tableId));
+            if (sessionLines.isEmpty()) {
+                continue;
+            }
+            cartStore.update(CartKey.forUser(userId, tableId), true, cart -> {
+                Map<List<Long>, CartLine> byChoice = new HashMap<>();
+                for (CartLine line : cart.getLines()) {
+                    byChoice.putIfAbsent(line.choiceKey(), line);
+                }
+                for (CartLine sessionLine : sessionLines) {
+                    CartLine existing = byChoice.get(sessionLine.choiceKey());
+                    if (existing != null) {
+                        existing.setQuantity(existing.getQuantity() + sessionLine.getQuantity());
+                        cart.lineChanged(existing);
+                    } else {
+                        CartLine moved = new CartLine(cartStore.nextLineId(), sessionLine.getMenuItemId(),
+                                sessionLine.getQuantity(), sessionLine.getSpecialInstructions(),
+                                sessionLine.getPriceCents(), sessionLine.getModifierIds(), sessionLine.getCreatedAt());
+                        cart.addLine(moved);
+                        byChoice.put(moved.choiceKey(), moved);
+                    }
+                }
+                return null;
+            });
+            logger.info("Carts merged successfully - session: {}, user: {}, table: {}, lines: {}",
+                    sessionToken, userId, tableId, sessionLines.size());
         }
+    }
 
-        cart.removeCartItem(cartItem);
-        cartItemRepository.delete(cartItem);
+    // Shared table carts: every guest at the table edits one cart but only changes their own
+    // lines, and adds merge into the guest's existing line, so concurrent guests never conflict.
+    // Each change is broadcast to the table after the cart lock is released.
 
-        Cart savedCart = cartRepository.save(cart);
-        logger.info("Item removed from cart successfully - cart id: {}, item id: {}", cart.getId(), itemId);
+    public CartResponse getTableCart(String tableToken, Long userId, String sessionToken, CartView view) {
+        logger.info("Getting shared cart for table token: {}", tableToken);
 
-        return convertToCartResponse(savedCart);
+        String participant = participantKey(userId, sessionToken);
+        CartKey key = CartKey.forTable(tableService.getTableByToken(tableToken).getId());
+        return cartStore.read(key, true, cart -> forGuest(render(cart, view), cart, participant));
     }
 
-    public CartResponse clearCart(Long userId, String sessionToken, Long tableId) {
-        logger.info("Clearing cart - user: {}, session: {}, table: {}", userId, sessionToken, tableId);
+    public CartResponse addToTableCart(String tableToken, Long userId, String sessionToken, String guestName,
+                                       CartItemRequest cartItemRequest, CartView view) {
+        logger.info("Adding item to shared cart - table token: {}, item: {}", tableToken, cartItemRequest.getMenuItemId());
+
+        String participant = participantKey(userId, sessionToken);
+        String name = guestName(guestName);
+        MenuCatalog catalog = menuCatalogService.getCatalog();
+        MenuItemResponse menuItem = getValidMenuItem(catalog, cartItemRequest.getMenuItemId());
+        List<Long> modifierIds = resolveModifierIds(catalog, cartItemRequest.getModifierIds());
+        checkModifiers(catalog, menuItem.getId(), modifierIds);
+
+        return updateTableCart(tableToken, participant, true, view, cart ->
+                addLine(cart, participant, name, menuItem, cartItemRequest.getQuantity(),
+                        cartItemRequest.getSpecialInstructions(), modifierIds));
+    }
 
-        Cart cart = getCartInternal(userId, sessionToken, tableId);
-        cartItemRepository.deleteByCartId(cart.getId());
-        cart.getCartItems().clear();
+    public CartResponse updateTableCartItem(String tableToken, Long userId, String sessionToken, Long itemId,
+                                            CartItemRequest cartItemRequest, CartView view) {
+        logger.info("Updating shared cart item - table token: {}, item: {}", tableToken, itemId);
 
-        Cart savedCart = cartRepository.save(cart);
-        logger.info("Cart cleared successfully - cart id: {}", cart.getId());
+        String participant = participantKey(userId, sessionToken);
+        List<Long> modifierIds = cartItemRequest.getModifierIds() != null
+                ? resolveModifierIds(menuCatalogService.getCatalog(), cartItemRequest.getModifierIds())
+                : null;
 
-        return convertToCartResponse(savedCart);
+        return updateTableCart(tableToken, participant, false, view, cart -> {
+            getOwnLine(cart, participant, itemId);
+            updateLine(cart, itemId, cartItemRequest.getQuantity(), cartItemRequest.getSpecialInstructions(), modifierIds);
+        });
     }
 
-    public void mergeCarts(String sessionToken, Long userId) {
-        logger.info("Merging carts - session: {}, user: {}", sessionToken, userId);
+    public CartResponse removeFromTableCart(String tableToken, Long userId, String sessionToken, Long itemId,
+                                            CartView view) {
+        logger.info("Removing item from shared cart - table token: {}, item: {}", tableToken, itemId);
 
-        Optional<Cart> sessionCart = cartRepository.findBySessionTokenWithItems(sessionToken);
-        if (sessionCart.isPresent()) {
-            Cart userCart = getOrCreateUserCart(userId, sessionCart.get().getTable() != null ? sessionCart.get().getTable().getId() : null);
+        String participant = participantKey(userId, sessionToken);
+        return updateTableCart(tableToken, participant, false, view, cart -> {
+            getOwnLine(cart, participant, itemId);
+            cart.removeLine(itemId);
+        });
+    }
 
-            // Merge session cart items into user cart
-            for (CartItem sessionItem : sessionCart.get().getCartItems()) {
-                addItemToCart(userId, null, userCart.getTable() != null ? userCart.getTable().getId() : null,
-                        convertToCartItemRequest(sessionItem));
+    /** Removes the caller's own lines from the shared cart, leaving the other guests' lines. */
+    public CartResponse clearOwnTableCartLines(String tableToken, Long userId, String sessionToken, CartView view) {
+        logger.info("Clearing own lines from shared cart - table token: {}", tableToken);
+
+        String participant = participantKey(userId, sessionToken);
+        return updateTableCart(tableToken, participant, false, view, cart -> {
+            List<Long> own = new ArrayList<>();
+            for (CartLine line : cart.getLines()) {
+                if (participant.equals(line.getParticipant())) {
+                    own.add(line.getId());
+                }
             }
+            for (Long lineId : own) {
+                cart.removeLine(lineId);
+            }
+        });
+    }
 
-            // Delete session cart
-            cartRepository.delete(sessionCart.get());
-            logger.info("Carts merged successfully - session: {}, user: {}", sessionToken, userId);
-        }
+    private CartResponse updateTableCart(String tableToken, String participant, boolean createIfMissing,
+                                         CartView view, Consumer<CartState> change) {
+        CartKey key = CartKey.forTable(tableService.getTableByToken(tableToken).getId());
+        CartResponse[] broadcast = new CartResponse[1];
+        CartResponse response = cartStore.update(key, createIfMissing, cart -> {
+            change.accept(cart);
+            long menuVersion = menuCatalogService.getCatalog().getVersion();
+            broadcast[0] = render(cart, CartView.of(cart.getVersion() - 1, menuVersion));
+            return forGuest(render(cart, view), cart, participant);
+        });
+        webSocketService.notifyTableCartUpdate(tableToken, broadcast[0]);
+        return response;
+    }
+
+    private CartResponse forGuest(CartResponse response, CartState cart, String participant) {
+        response.setGuestNumber(cart.guestNumber(participant));
+        return response;
     }
 
     // Private helper methods
-    private Cart getOrCreateCartInternal(Long userId, String sessionToken, Long tableId) {
-        if (userId != null) {
-            return getOrCreateUserCart(userId, tableId);
-        } else {
-            return getOrCreateSessionCart(sessionToken, tableId);
-        }
+    private record ReorderLine(MenuItemResponse menuItem, int quantity, String specialInstructions,
+                               List<Long> modifierIds) {
     }
 
-    private Cart getCartInternal(Long userId, String sessionToken, Long tableId) {
-        if (userId != null) {
-            return getUserCart(userId, tableId);
-        } else {
-            return getSessionCart(sessionToken, tableId);
+    private CartKey cartKey(Long userId, String sessionToken, Long tableId) {
+        if (userId == null && (sessionToken == null || sessionToken.isBlank())) {
+            throw new ValidationException("Either userId or sessionToken must be provided");
         }
+        return CartKey.of(userId, sessionToken, tableId);
     }
 
-    private Cart getOrCreateUserCart(Long userId, Long tableId) {
-        return cartRepository.findByUserAndTable(userId, tableId)
-                .orElseGet(() -> createUserCart(userId, tableId));
+    private void validateOperation(CartOperationRequest operation) {
+        switch (operation.getType()) {
+            case ADD -> {
+                if (operation.getMenuItemId() == null || operation.getQuantity() == null) {
+                    throw new ValidationException("ADD needs menuItemId and quantity");
+                }
+            }
+            case UPDATE -> {
+                if (operation.getItemId() == null || operation.getQuantity() == null) {
+                    throw new ValidationException("UPDATE needs itemId and quantity");
+                }
+            }
+            case REMOVE -> {
+                if (operation.getItemId() == null) {
+                    throw new ValidationException("REMOVE needs itemId");
+                }
+            }
+            case CLEAR -> {
+            }
+        }
     }
 
-    private Cart getOrCreateSessionCart(String sessionToken, Long tableId) {
-        return cartRepository.findBySessionTokenAndTable(sessionToken, tableId)
-                .orElseGet(() -> createSessionCart(sessionToken, tableId));
+    private void addLine(CartState cart, MenuItemResponse menuItem, int quantity, String specialInstructions,
+                         List<Long> modifierIds) {
+        addLine(cart, null, null, menuItem, quantity, specialInstructions, modifierIds);
     }
 
-    private Cart getUserCart(Long userId, Long tableId) {
-        return cartRepository.findByUserAndTable(userId, tableId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found for user: " + userId + " and table: " + tableId));
+    private void addLine(CartState cart, String participant, String guestName, MenuItemResponse menuItem,
+                         int quantity, String specialInstructions, List<Long> modifierIds) {
+        // The same item with the same modifiers only bumps the quantity
+        CartLine existing = cart.findSameChoice(participant, menuItem.getId(), modifierIds);
+        if (existing != null) {
+            existing.setQuantity(existing.getQuantity() + quantity);
+            cart.lineChanged(existing);
+        } else {
+            cart.addLine(new CartLine(cartStore.nextLineId(), menuItem.getId(), quantity, specialInstructions,
+                    Money.toCents(menuItem.getPrice()), modifierIds, LocalDateTime.now(), participant, guestName));
+        }
     }
 
-    private Cart getSessionCart(String sessionToken, Long tableId) {
-        return cartRepository.findBySessionTokenAndTable(sessionToken, tableId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found for session: " + sessionToken + " and table: " + tableId));
+    private void updateLine(CartState cart, Long itemId, int quantity, String specialInstructions,
+                            List<Long> modifierIds) {
+        CartLine line = getLine(cart, itemId);
+        if (modifierIds != null) {
+            checkModifiers(menuCatalogService.getCatalog(), line.getMenuItemId(), modifierIds);
+        }
+        line.setQuantity(quantity);
+        line.setSpecialInstructions(specialInstructions);
+        if (modifierIds != null) {
+            line.setModifierIds(modifierIds);
+        }
+        cart.lineChanged(line);
     }
 
-    private Cart createUserCart(Long userId, Long tableId) {
-        Cart cart = new Cart();
-        cart.setUser(userService.findById(userId));
+    private void removeLine(CartState cart, Long itemId) {
+        getLine(cart, itemId);
+        cart.removeLine(itemId);
+    }
 
-        if (tableId != null) {
-            cart.setTable(tableService.getTableByIdEntity(tableId));
+    private CartLine getLine(CartState cart, Long itemId) {
+        CartLine line = itemId != null ? cart.findLine(itemId) : null;
+        if (line == null) {
+            throw new ResourceNotFoundException("Cart item not found with id: " + itemId);
         }
+        return line;
+    }
 
-        return cartRepository.save(cart);
+    // Modifiers must be attached to the item and within the per-type limits
+    private void checkModifiers(MenuCatalog catalog, long menuItemId, List<Long> modifierIds) {
+        String issue = catalog.getModifierCompatibility().check(menuItemId, modifierIds);
+        if (issue != null) {
+            throw new ValidationException(issue);
+        }
     }
 
-    private Cart createSessionCart(String sessionToken, Long tableId) {
-        Cart cart = new Cart();
-        cart.setSessionToken(sessionToken);
+    private CartLine getOwnLine(CartState cart, String participant, Long itemId) {
+        CartLine line = getLine(cart, itemId);
+        if (!participant.equals(line.getParticipant())) {
+            throw new ValidationException("Cart item belongs to another guest: " + itemId);
+        }
+        return line;
+    }
 
-        if (tableId != null) {
-            cart.setTable(tableService.getTableByIdEntity(tableId));
+    private String participantKey(Long userId, String sessionToken) {
+        if (userId != null) {
+            return "user:" + userId;
         }
+        if (sessionToken == null || sessionToken.isBlank()) {
+            throw new ValidationException("Either userId or sessionToken must be provided");
+        }
+        return "session:" + sessionToken;
+    }
 
-        return cartRepository.save(cart);
+    private String guestName(String guestName) {
+        if (guestName == null || guestName.isBlank()) {
+            return null;
+        }
+        String name = guestName.trim();
+        if (name.length() > 100) {
+            throw new ValidationException("Guest name must be at most 100 characters");
+        }
+        return name;
     }
 
-    private MenuItem getValidMenuItem(Long menuItemId) {
-        MenuItem menuItem = menuItemRepository.findById(menuItemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Menu item not found with id: " + menuItemId));
+    private MenuItemResponse getValidMenuItem(MenuCatalog catalog, Long menuItemId) {
+        MenuItemResponse menuItem = catalog.findItem(menuItemId);
+        if (menuItem == null) {
+            throw new ResourceNotFoundException("Menu item not found with id: " + menuItemId);
+        }
 
-        if (!menuItem.getAvailable()) {
+        if (!Boolean.TRUE.equals(menuItem.getAvailable())) {
             throw new ValidationException("Menu item is not available: " + menuItem.getName());
         }
 
-        if (!menuItem.getCategory().getActive()) {
+        if (!Boolean.TRUE.equals(menuItem.getCategory().getActive())) {
             throw new ValidationException("Menu item category is not active: " + menuItem.getCategory().getName());
         }
 
+        if (!menuCatalogService.isWithinSchedule(menuItem.getCategory().getId(), menuItem.getId())) {
+            throw new ValidationException("Menu item is not being served right now: " + menuItem.getName());
+        }
+
         return menuItem;
     }
 
-    private CartItemRequest convertToCartItemRequest(CartItem cartItem) {
-        CartItemRequest request = new CartItemRequest();
-        request.setMenuItemId(cartItem.getMenuItem().getId());
-        request.setQuantity(cartItem.getQuantity());
-        request.setSpecialInstructions(cartItem.getSpecialInstructions());
-        request.setModifierIds(cartItem.getModifiers().stream()
-                .map(Modifier::getId)
-                .collect(Collectors.toList()));
-        return request;
+    // Unknown and unavailable modifiers are dropped, as the old repository lookup did
+    private List<Long> resolveModifierIds(MenuCatalog catalog, List<Long> requested) {
+        if (requested == null || requested.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> modifierIds = new LinkedHashSet<>();
+        for (Long id : requested) {
+            ModifierResponse modifier = id != null ? catalog.findModifier(id) : null;
+            if (modifier != null && Boolean.TRUE.equals(modifier.getAvailable())) {
+                modifierIds.add(id);
+            }
+        }
+        return new ArrayList<>(modifierIds);
     }
 
-    private CartResponse convertToCartResponse(Cart cart) {
-        CartResponse response = new CartResponse();
-        response.setId(cart.getId());
-
-        if (cart.getUser() != null) {
-            response.setUser(UserResponse.fromUser(cart.getUser()));
+    private CartResponse render(CartState cart, CartView view) {
+        if (view.isDelta() && cart.canDiffFrom(view.getSinceVersion())) {
+            return convertToCartDelta(cart, view);
         }
+        return convertToCartResponse(cart);
+    }
 
-        if (cart.getTable() != null) {
-            response.setTable(convertToTableResponse(cart.getTable()));
+    private CartResponse convertToCartResponse(CartState cart) {
+        CartResponse response = new CartResponse();
+        response.setId(cart.getId());
+        response.setUser(cart.getUser());
+        response.setTable(cart.getTable());
+
+        MenuCatalog catalog = menuCatalogService.getCatalog();
+        CartQuote quote = cartQuoteService.quote(cart, catalog);
+        response.setVersion(cart.getVersion());
+        response.setMenuVersion(catalog.getVersion());
+        List<CartItemResponse> items = new ArrayList<>(cart.getLines().size());
+        for (CartLine line : cart.getLines()) {
+            CartItemResponse item = convertToCartItemResponse(line, catalog, quote.line(line.getId()));
+            item.setGuestNumber(cart.guestNumber(line));
+            item.setGuestName(line.getGuestName());
+            items.add(item);
         }
+        response.setCartItems(items);
 
-        response.setCartItems(cart.getCartItems().stream()
-                .map(this::convertToCartItemResponse)
-                .collect(Collectors.toList()));
-
-        response.setTotalAmount(calculateTotalAmount(cart));
+        response.setTotalAmount(Money.fromCents(quote.getTotalCents()));
+        response.setValid(quote.isValid());
         response.setCreatedAt(cart.getCreatedAt());
         response.setUpdatedAt(cart.getUpdatedAt());
 
         return response;
     }
 
-    private CartItemResponse convertToCartItemResponse(CartItem cartItem) {
-        CartItemResponse response = new CartItemResponse();
-        response.setId(cartItem.getId());
-        response.setMenuItem(convertToMenuItemResponse(cartItem.getMenuItem()));
-        response.setQuantity(cartItem.getQuantity());
-        response.setSpecialInstructions(cartItem.getSpecialInstructions());
-        response.setPrice(cartItem.getPrice());
-        response.setModifiers(cartItem.getModifiers().stream()
-                .map(this::convertToModifierResponse)
-                .collect(Collectors.toList()));
-        response.setTotalPrice(cartItem.getTotalPrice());
-        response.setCreatedAt(cartItem.getCreatedAt());
+    /**
+     * Only the lines changed since the client's version, in compact form, plus removed line ids
+     * and the new total. All lines are resent when the client priced its copy with another menu.
+     */
+    private CartResponse convertToCartDelta(CartState cart, CartView view) {
+        MenuCatalog catalog = menuCatalogService.getCatalog();
+        CartQuote quote = cartQuoteService.quote(cart, catalog);
+        long since = view.getSinceVersion();
+        boolean repriced = view.getMenuVersion() == null || view.getMenuVersion() != catalog.getVersion();
+
+        CartResponse response = new CartResponse();
+        response.setId(cart.getId());
+        response.setVersion(cart.getVersion());
+        response.setMenuVersion(catalog.getVersion());
+        response.setDelta(true);
+        response.setSinceVersion(since);
+
+        List<CartLine> lines = repriced ? cart.getLines() : cart.linesChangedSince(since);
+        List<CartItemResponse> items = new ArrayList<>(lines.size());
+        for (CartLine line : lines) {
+            CartQuote.LineQuote lineQuote = quote.line(line.getId());
+            CartItemResponse item = new CartItemResponse();
+            item.setId(line.getId());
+            item.setMenuItemId(line.getMenuItemId());
+            item.setModifierIds(line.getModifierIds());
+            item.setQuantity(line.getQuantity());
+            item.setSpecialInstructions(line.getSpecialInstructions());
+            item.setPrice(Money.fromCents(lineQuote.getBaseCents()));
+            item.setTotalPrice(Money.fromCents(lineQuote.getLineCents()));
+            item.setAvailable(lineQuote.isValid());
+            item.setIssue(lineQuote.getIssue());
+            item.setCreatedAt(line.getCreatedAt());
+            item.setGuestNumber(cart.guestNumber(line));
+            item.setGuestName(line.getGuestName());
+            items.add(item);
+        }
+        response.setCartItems(items);
+        response.setRemovedItemIds(cart.lineIdsRemovedSince(since));
+        response.setTotalAmount(Money.fromCents(quote.getTotalCents()));
+        response.setValid(quote.isValid());
+        response.setCreatedAt(cart.getCreatedAt());
+        response.setUpdatedAt(cart.getUpdatedAt());
         return response;
     }
 
-    // These conversion methods would use the same pattern as in MenuService
-    // For brevity, I'm including simplified versions
-    private com.coffeehub.dto.response.TableResponse convertToTableResponse(RestaurantTable table) {
-        com.coffeehub.dto.response.TableResponse response = new com.coffeehub.dto.response.TableResponse();
-        response.setId(table.getId());
-        response.setTableNumber(table.getTableNumber());
-        response.setTableToken(table.getTableToken());
-        response.setCapacity(table.getCapacity());
-        response.setStatus(table.getStatus());
-        response.setQrCodeUrl(table.getQrCodeUrl());
-        response.setCreatedAt(table.getCreatedAt());
+    private CartItemResponse convertToCartItemResponse(CartLine line, MenuCatalog catalog, CartQuote.LineQuote lineQuote) {
+        CartItemResponse response = new CartItemResponse();
+        response.setId(line.getId());
+        response.setMenuItem(convertToMenuItemResponse(line, catalog.findItem(line.getMenuItemId())));
+        response.setQuantity(line.getQuantity());
+        response.setSpecialInstructions(line.getSpecialInstructions());
+        response.setPrice(Money.fromCents(lineQuote.getBaseCents()));
+
+        List<ModifierResponse> modifiers = new ArrayList<>(line.getModifierIds().size());
+        for (Long modifierId : line.getModifierIds()) {
+            ModifierResponse modifier = catalog.findModifier(modifierId);
+            if (modifier != null) {
+                modifiers.add(modifier);
+            }
+        }
+        response.setModifiers(modifiers);
+        response.setTotalPrice(Money.fromCents(lineQuote.getLineCents()));
+        response.setAvailable(lineQuote.isValid());
+        response.setIssue(lineQuote.getIssue());
+        response.setCreatedAt(line.getCreatedAt());
         return response;
     }
 
-    private com.coffeehub.dto.response.MenuItemResponse convertToMenuItemResponse(MenuItem menuItem) {
-        com.coffeehub.dto.response.MenuItemResponse response = new com.coffeehub.dto.response.MenuItemResponse();
-        response.setId(menuItem.getId());
+    // Cart lines carry the item's own fields only, not its category and modifier lists
+    private MenuItemResponse convertToMenuItemResponse(CartLine line, MenuItemResponse menuItem) {
+        MenuItemResponse response = new MenuItemResponse();
+        response.setId(line.getMenuItemId());
+        if (menuItem == null) {
+            response.setPrice(Money.fromCents(line.getPriceCents()));
+            response.setAvailable(false);
+            return response;
+        }
         response.setName(menuItem.getName());
         response.setDescription(menuItem.getDescription());
         response.setPrice(menuItem.getPrice());
         response.setImageUrl(menuItem.getImageUrl());
         response.setAvailable(menuItem.getAvailable());
+        response.setScheduledOpen(menuItem.getScheduledOpen());
         response.setPreparationTime(menuItem.getPreparationTime());
         response.setCreatedAt(menuItem.getCreatedAt());
         return response;
     }
-
-    private com.coffeehub.dto.response.ModifierResponse convertToModifierResponse(Modifier modifier) {
-        com.coffeehub.dto.response.ModifierResponse response = new com.coffeehub.dto.response.ModifierResponse();
-        response.setId(modifier.getId());
-        response.setName(modifier.getName());
-        response.setType(modifier.getType());
-        response.setPriceAdjustment(modifier.getPriceAdjustment());
-        response.setAvailable(modifier.getAvailable());
-        response.setCreatedAt(modifier.getCreatedAt());
-        return response;
-    }
-
-    private BigDecimal calculateTotalAmount(Cart cart) {
-        return cart.getCartItems().stream()
-                .map(CartItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-}
\ No newline at end of file
+}
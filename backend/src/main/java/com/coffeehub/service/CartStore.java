@@ -0,0 +1,589 @@
+package com.coffeehub.service;
+
+import com.coffeehub.dto.response.TableResponse;
+import com.coffeehub.dto.response.UserResponse;
+import com.coffeehub.exception.CartVersionConflictException;
+import com.coffeehub.exception.ResourceNotFoundException;
+import com.coffeehub.service.cart.CartKey;
+import com.coffeehub.service.cart.CartLine;
+import com.coffeehub.service.cart.CartState;
+import com.coffeehub.service.pricing.Money;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * In-memory home of every live cart, with write-behind persistence.
+ * Carts are keyed by user or session plus table and guarded by a fixed set of striped locks,
+ * so unrelated carts never contend. Mutations only touch memory and mark the cart dirty;
+ * a background flush writes dirty carts to {@code carts} / {@code cart_items} in batches.
+ * A cart missing from memory (after a restart or eviction) is reloaded from its last flush.
+ * <p>
+ * Cart and line ids are handed out here rather than by the database, so clients can address
+ * a line before it is flushed. This assumes a single application instance owns the carts.
+ */
+@Service
+public class CartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartStore.class);
+
+    // Flushes the database may reject for one cart before its unsaved changes are dropped
+    private static final int MAX_REJECTED_FLUSHES = 3;
+
+    private static final String SELECT_USER_CART =
+            "SELECT id, created_at, updated_at FROM carts WHERE user_id = ? " +
+            "AND (table_id = ? OR (table_id IS NULL AND ? IS NULL)) ORDER BY updated_at DESC, id DESC LIMIT 1";
+
+    private static final String SELECT_SESSION_CART =
+            "SELECT id, created_at, updated_at FROM carts WHERE session_token = ? AND user_id IS NULL " +
+            "AND (table_id = ? OR (table_id IS NULL AND ? IS NULL)) ORDER BY updated_at DESC, id DESC LIMIT 1";
+
+    private static final String SELECT_TABLE_CART =
+            "SELECT id, created_at, updated_at FROM carts WHERE table_id = ? AND user_id IS NULL " +
+            "AND session_token IS NULL ORDER BY updated_at DESC, id DESC LIMIT 1";
+
+    private static final String SELECT_LINES =
+            "SELECT id, menu_item_id, quantity, special_instructions, price, created_at, participant, guest_name " +
+            "FROM cart_items " +
+            "WHERE cart_id = ? ORDER BY id";
+
+    private static final String SELECT_LINE_MODIFIERS =
+            "SELECT cim.cart_item_id, cim.modifier_id FROM cart_item_modifiers cim " +
+            "JOIN cart_items ci ON ci.id = cim.cart_item_id WHERE ci.cart_id = ? ORDER BY cim.modifier_id";
+
+    private static final String INSERT_CART =
+            "INSERT INTO carts (id, user_id, table_id, session_token, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_CART = "UPDATE carts SET updated_at = ? WHERE id = ?";
+
+    private static final String DELETE_LINE_MODIFIERS =
+            "DELETE FROM cart_item_modifiers WHERE cart_item_id IN (SELECT id FROM cart_items WHERE cart_id = ?)";
+
+    private static final String DELETE_LINES = "DELETE FROM cart_items WHERE cart_id = ?";
+
+    private static final String DELETE_CART = "DELETE FROM carts WHERE id = ?";
+
+    private static final String INSERT_LINE =
+            "INSERT INTO cart_items (id, cart_id, menu_item_id, quantity, special_instructions, price, created_at, " +
+            "participant, guest_name) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_LINE_MODIFIER =
+            "INSERT INTO cart_item_modifiers (cart_item_id, modifier_id) VALUES (?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TableService tableService;
+
+    @Value("${app.cart.lock-stripes:64}")
+    private int lockStripes;
+
+    @Value("${app.cart.idle-evict-minutes:30}")
+    private long idleEvictMinutes;
+
+    private final Map<CartKey, CartState> carts = new ConcurrentHashMap<>();
+    private final Set<CartState> dirty = ConcurrentHashMap.newKeySet();
+    private ReentrantLock[] stripes;
+
+    private final AtomicLong cartIds = new AtomicLong();
+    private final AtomicLong lineIds = new AtomicLong();
+    private final Object seedLock = new Object();
+    private volatile boolean idsSeeded;
+
+    @PostConstruct
+    void init() {
+        stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, lockStripes) * 2 - 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs the reader against the cart under its lock. Missing carts are created when asked
+     * to, otherwise a {@link ResourceNotFoundException} is thrown.
+     */
+    public <T> T read(CartKey key, boolean createIfMissing, Function<CartState, T> reader) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            CartState state = resolve(key, createIfMissing);
+            state.touch();
+            return reader.apply(state);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the mutation to the cart under its lock and queues the cart for the next flush.
+     * The cart's version is bumped before the mutation runs and put back if it throws, in which
+     * case the cart is not queued. Mutations must therefore validate before changing anything.
+     */
+    public <T> T update(CartKey key, boolean createIfMissing, Function<CartState, T> mutation) {
+        return update(key, createIfMissing, null, false, mutation);
+    }
+
+    /**
+     * Conditional form of {@link #update(CartKey, boolean, Function)}: when an expected version
+     * is given and the cart has moved past it, the change is rejected with a
+     * {@link CartVersionConflictException}. Mergeable changes, those whose effect does not
+     * depend on what the client last saw (such as adding to a quantity), are instead replayed
+     * onto the current cart.
+     */
+    public <T> T update(CartKey key, boolean createIfMissing, Long expectedVersion, boolean mergeable,
+                        Function<CartState, T> mutation) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            CartState state = resolve(key, createIfMissing);
+            if (expectedVersion != null && state.getVersion() != expectedVersion) {
+                if (!mergeable) {
+                    throw new CartVersionConflictException(expectedVersion, state.getVersion());
+                }
+                logger.debug("Merging change onto cart {} at version {}, client had {}",
+                        state.getId(), state.getVersion(), expectedVersion);
+            }
+            long previousVersion = state.getVersion();
+            LocalDateTime previousUpdatedAt = state.getUpdatedAt();
+            // Bumped first so lines touched by the mutation carry the new version
+            state.markChanged();
+            T result;
+            try {
+                result = mutation.apply(state);
+            } catch (RuntimeException e) {
+                state.revertChange(previousVersion, previousUpdatedAt);
+                throw e;
+            }
+            dirty.add(state);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the cart and returns its lines as they were; the rows are deleted on the next flush.
+     * Returns an empty list when there is no such cart.
+     */
+    public List<CartLine> remove(CartKey key) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            CartState state = carts.get(key);
+            if (state != null && state.isDeleted()) {
+                return List.of();
+            }
+            if (state == null) {
+                state = load(key);
+                if (state == null) {
+                    return List.of();
+                }
+                carts.put(key, state);
+            }
+            List<CartLine> lines = new ArrayList<>();
+            for (CartLine line : state.getLines()) {
+                lines.add(line.copy());
+            }
+            state.markDeleted();
+            dirty.add(state);
+            return lines;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Tables at which the guest session has a cart, in memory or persisted. */
+    public Set<Long> findSessionCartTables(String sessionToken) {
+        Set<Long> tableIds = new LinkedHashSet<>();
+        for (CartState state : carts.values()) {
+            if (sessionToken.equals(state.getKey().getSessionToken()) && !state.isDeleted()) {
+                tableIds.add(state.getKey().getTableId());
+            }
+        }
+        jdbcTemplate.query("SELECT DISTINCT table_id FROM carts WHERE session_token = ? AND user_id IS NULL",
+                rs -> {
+                    long tableId = rs.getLong("table_id");
+                    tableIds.add(rs.wasNull() ? null : tableId);
+                },
+                sessionToken);
+        return tableIds;
+    }
+
+    /**
+     * Deletes the given persisted carts, picked by the sweeper as untouched since the cutoff.
+     * Carts used in memory since the cutoff, or with changes not yet flushed, are kept.
+     * The stripe locks of the whole batch are held, in stripe order, while its rows are deleted,
+     * so no request can reload a cart halfway through; callers keep batches small.
+     * Returns the number of carts deleted.
+     */
+    public int removeAbandoned(Map<Long, CartKey> cartKeysById, LocalDateTime cutoff) {
+        long cutoffMillis = cutoff.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (CartKey key : cartKeysById.values()) {
+            stripeIndexes.add(stripeIndex(key));
+        }
+        List<ReentrantLock> held = new ArrayList<>(stripeIndexes.size());
+        try {
+            for (int index : stripeIndexes) {
+                ReentrantLock lock = stripes[index];
+                lock.lock();
+                held.add(lock);
+            }
+
+            List<Object[]> doomed = new ArrayList<>();
+            for (Map.Entry<Long, CartKey> entry : cartKeysById.entrySet()) {
+                CartState state = carts.get(entry.getValue());
+                if (state != null && state.getId() == entry.getKey()) {
+                    if (state.isDeleted() || !state.isClean() || state.getLastAccessMillis() >= cutoffMillis) {
+                        continue;
+                    }
+                    carts.remove(entry.getValue(), state);
+                }
+                doomed.add(new Object[]{entry.getKey()});
+            }
+            if (!doomed.isEmpty()) {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    batch(DELETE_LINE_MODIFIERS, doomed);
+                    batch(DELETE_LINES, doomed);
+                    batch(DELETE_CART, doomed);
+                });
+            }
+            return doomed.size();
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    public long nextLineId() {
+        seedIds();
+        return lineIds.incrementAndGet();
+    }
+
+    /**
+     * Writes every dirty cart in one transaction of batched statements. Carts are copied under
+     * their lock and written outside it, so mutations keep flowing while the flush runs.
+     * <p>
+     * When the database rejects the batch (for example a line whose menu item was deleted),
+     * the carts are written again one per transaction so the others still land. A cart rejected
+     * {@value #MAX_REJECTED_FLUSHES} flushes in a row is dropped from memory and falls back to
+     * its last written state.
+     */
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (!dirty.isEmpty()) {
+            writeDirty();
+        }
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.info("Flushing {} dirty carts before shutdown", dirty.size());
+        flush();
+    }
+
+    private void writeDirty() {
+        List<CartState> live = new ArrayList<>();
+        List<CartState> snapshots = new ArrayList<>();
+        for (CartState state : dirty) {
+            dirty.remove(state);
+            ReentrantLock lock = lockFor(state.getKey());
+            lock.lock();
+            try {
+                live.add(state);
+                snapshots.add(state.snapshot());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long started = System.currentTimeMillis();
+        try {
+            writeInTransaction(snapshots);
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Database rejected a flush of {} carts, writing them one at a time: {}",
+                    snapshots.size(), e.getMessage());
+            for (int i = 0; i < live.size(); i++) {
+                writeAlone(live.get(i), snapshots.get(i));
+            }
+            return;
+        } catch (Exception e) {
+            // Leave everything dirty; the next flush retries the latest contents
+            logger.error("Failed to flush {} carts, will retry", snapshots.size(), e);
+            dirty.addAll(live);
+            return;
+        }
+
+        for (int i = 0; i < live.size(); i++) {
+            flushed(live.get(i), snapshots.get(i));
+        }
+        logger.debug("Flushed {} carts in {} ms", snapshots.size(), System.currentTimeMillis() - started);
+    }
+
+    private void writeInTransaction(List<CartState> snapshots) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> write(snapshots));
+    }
+
+    private void writeAlone(CartState state, CartState snapshot) {
+        try {
+            writeInTransaction(List.of(snapshot));
+        } catch (DataIntegrityViolationException e) {
+            rejected(state, e);
+            return;
+        } catch (Exception e) {
+            logger.error("Failed to flush cart {}, will retry", state.getId(), e);
+            dirty.add(state);
+            return;
+        }
+        flushed(state, snapshot);
+    }
+
+    private void flushed(CartState state, CartState written) {
+        ReentrantLock lock = lockFor(state.getKey());
+        lock.lock();
+        try {
+            state.markFlushed(written.getVersion());
+            if (state.isDeleted() && state.isClean()) {
+                carts.remove(state.getKey(), state);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rejected(CartState state, DataIntegrityViolationException e) {
+        ReentrantLock lock = lockFor(state.getKey());
+        lock.lock();
+        try {
+            int rejections = state.recordRejectedFlush();
+            if (rejections < MAX_REJECTED_FLUSHES) {
+                logger.warn("Database rejected cart {} ({} of {}), will retry: {}",
+                        state.getId(), rejections, MAX_REJECTED_FLUSHES, e.getMessage());
+                dirty.add(state);
+                return;
+            }
+            // Its unsaved changes are lost; the next access reloads what was last written
+            dirty.remove(state);
+            carts.remove(state.getKey(), state);
+            logger.error("Dropping cart {} for {} after {} rejected flushes", state.getId(), state.getKey(),
+                    rejections, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(List<CartState> snapshots) {
+        List<Object[]> insertCarts = new ArrayList<>();
+        List<Object[]> updateCarts = new ArrayList<>();
+        List<Object[]> rewrittenCarts = new ArrayList<>();
+        List<Object[]> deletedCarts = new ArrayList<>();
+        List<Object[]> insertLines = new ArrayList<>();
+        List<Object[]> insertModifiers = new ArrayList<>();
+
+        for (CartState cart : snapshots) {
+            if (cart.isDeleted()) {
+                if (cart.isPersisted()) {
+                    rewrittenCarts.add(new Object[]{cart.getId()});
+                    deletedCarts.add(new Object[]{cart.getId()});
+                }
+                continue;
+            }
+            if (cart.isPersisted()) {
+                updateCarts.add(new Object[]{Timestamp.valueOf(cart.getUpdatedAt()), cart.getId()});
+                rewrittenCarts.add(new Object[]{cart.getId()});
+            } else {
+                insertCarts.add(new Object[]{cart.getId(), cart.getKey().getUserId(), cart.getKey().getTableId(),
+                        cart.getKey().getSessionToken(), Timestamp.valueOf(cart.getCreatedAt()),
+                        Timestamp.valueOf(cart.getUpdatedAt())});
+            }
+            for (CartLine line : cart.getLines()) {
+                insertLines.add(new Object[]{line.getId(), cart.getId(), line.getMenuItemId(), line.getQuantity(),
+                        line.getSpecialInstructions(), Money.fromCents(line.getPriceCents()),
+                        Timestamp.valueOf(line.getCreatedAt()), line.getParticipant(), line.getGuestName()});
+                for (Long modifierId : line.getModifierIds()) {
+                    insertModifiers.add(new Object[]{line.getId(), modifierId});
+                }
+            }
+        }
+
+        // Lines are rewritten wholesale; carts are small and this keeps the flush a fixed set of batches
+        batch(INSERT_CART, insertCarts);
+        batch(UPDATE_CART, updateCarts);
+        batch(DELETE_LINE_MODIFIERS, rewrittenCarts);
+        batch(DELETE_LINES, rewrittenCarts);
+        batch(DELETE_CART, deletedCarts);
+        batch(INSERT_LINE, insertLines);
+        batch(INSERT_LINE_MODIFIER, insertModifiers);
+    }
+
+    private void batch(String sql, List<Object[]> args) {
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, args);
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleEvictMinutes);
+        int evicted = 0;
+        for (CartState state : carts.values()) {
+            if (state.getLastAccessMillis() >= cutoff) {
+                continue;
+            }
+            ReentrantLock lock = lockFor(state.getKey());
+            lock.lock();
+            try {
+                if (state.isClean() && state.getLastAccessMillis() < cutoff && carts.remove(state.getKey(), state)) {
+                    evicted++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle carts, {} still in memory", evicted, carts.size());
+        }
+    }
+
+    // Caller holds the key's lock
+    private CartState resolve(CartKey key, boolean createIfMissing) {
+        CartState state = carts.get(key);
+        if (state != null && !state.isDeleted()) {
+            return state;
+        }
+        // A deleted cart's rows may not be gone yet, so never reload over a tombstone
+        if (state == null) {
+            state = load(key);
+        } else {
+            state = null;
+        }
+        if (state == null) {
+            if (!createIfMissing) {
+                throw new ResourceNotFoundException(key.isTableCart()
+                        ? "Shared cart not found for table: " + key.getTableId()
+                        : key.isUserCart()
+                        ? "Cart not found for user: " + key.getUserId() + " and table: " + key.getTableId()
+                        : "Cart not found for session: " + key.getSessionToken() + " and table: " + key.getTableId());
+            }
+            state = create(key);
+            dirty.add(state);
+        }
+        carts.put(key, state);
+        return state;
+    }
+
+    private CartState create(CartKey key) {
+        seedIds();
+        LocalDateTime now = LocalDateTime.now();
+        return new CartState(key, cartIds.incrementAndGet(), userFor(key), tableFor(key), List.of(), now, now, false);
+    }
+
+    private CartState load(CartKey key) {
+        if (key.isTableCart()) {
+            List<CartState> found = jdbcTemplate.query(SELECT_TABLE_CART, (rs, row) -> loaded(key, rs.getLong("id"),
+                    rs.getTimestamp("created_at"), rs.getTimestamp("updated_at")), key.getTableId());
+            return found.isEmpty() ? null : found.get(0);
+        }
+        List<CartState> found = key.isUserCart()
+                ? jdbcTemplate.query(SELECT_USER_CART, (rs, row) -> loaded(key, rs.getLong("id"),
+                        rs.getTimestamp("created_at"), rs.getTimestamp("updated_at")),
+                        key.getUserId(), key.getTableId(), key.getTableId())
+                : jdbcTemplate.query(SELECT_SESSION_CART, (rs, row) -> loaded(key, rs.getLong("id"),
+                        rs.getTimestamp("created_at"), rs.getTimestamp("updated_at")),
+                        key.getSessionToken(), key.getTableId(), key.getTableId());
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private CartState loaded(CartKey key, long cartId, Timestamp createdAt, Timestamp updatedAt) {
+        Map<Long, List<Long>> modifiersByLine = new HashMap<>();
+        jdbcTemplate.query(SELECT_LINE_MODIFIERS,
+                rs -> {
+                    modifiersByLine.computeIfAbsent(rs.getLong("cart_item_id"), id -> new ArrayList<>())
+                            .add(rs.getLong("modifier_id"));
+                },
+                cartId);
+
+        List<CartLine> lines = jdbcTemplate.query(SELECT_LINES, (rs, row) -> {
+            long lineId = rs.getLong("id");
+            Timestamp lineCreatedAt = rs.getTimestamp("created_at");
+            return new CartLine(lineId, rs.getLong("menu_item_id"), rs.getInt("quantity"),
+                    rs.getString("special_instructions"), Money.toCents(rs.getBigDecimal("price")),
+                    modifiersByLine.getOrDefault(lineId, List.of()),
+                    lineCreatedAt != null ? lineCreatedAt.toLocalDateTime() : LocalDateTime.now(),
+                    rs.getString("participant"), rs.getString("guest_name"));
+        }, cartId);
+
+        LocalDateTime created = createdAt != null ? createdAt.toLocalDateTime() : LocalDateTime.now();
+        LocalDateTime updated = updatedAt != null ? updatedAt.toLocalDateTime() : created;
+        CartState state = new CartState(key, cartId, userFor(key), tableFor(key), lines, created, updated, true);
+        state.markFlushed(state.getVersion());
+        logger.debug("Loaded cart {} for {} with {} lines", cartId, key, lines.size());
+        return state;
+    }
+
+    private UserResponse userFor(CartKey key) {
+        return key.isUserCart() ? UserResponse.fromUser(userService.findById(key.getUserId())) : null;
+    }
+
+    private TableResponse tableFor(CartKey key) {
+        return key.getTableId() != null ? tableService.getTableById(key.getTableId()) : null;
+    }
+
+    private void seedIds() {
+        if (idsSeeded) {
+            return;
+        }
+        // Not the store's monitor: seeding runs under a stripe lock, which the flush takes while holding it
+        synchronized (seedLock) {
+            if (!idsSeeded) {
+                Long maxCartId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM carts", Long.class);
+                Long maxLineId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cart_items", Long.class);
+                cartIds.accumulateAndGet(maxCartId != null ? maxCartId : 0, Math::max);
+                lineIds.accumulateAndGet(maxLineId != null ? maxLineId : 0, Math::max);
+                idsSeeded = true;
+            }
+        }
+    }
+
+    private ReentrantLock lockFor(CartKey key) {
+        return stripes[stripeIndex(key)];
+    }
+
+    private int stripeIndex(CartKey key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,151 @@
+package com.coffeehub.service;
+
+import com.coffeehub.service.cart.CartKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes guest carts nobody has touched since a cutoff.
+ * Candidates are read in small batches, paging on the primary key, and each batch is handed
+ * to {@link CartStore#removeAbandoned} so carts still in use are spared. The sweeper pauses
+ * between batches and runs on its own thread, so it never delays the cart flush.
+ */
+@Service
+public class CartSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartSweeper.class);
+
+    private static final String SELECT_ABANDONED =
+            "SELECT id, session_token, table_id FROM carts WHERE id > ? AND user_id IS NULL " +
+            "AND session_token IS NOT NULL AND updated_at < ? ORDER BY id LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.cart.sweep.abandoned-after-hours:72}")
+    private long abandonedAfterHours;
+
+    @Value("${app.cart.sweep.interval-minutes:30}")
+    private long intervalMinutes;
+
+    @Value("${app.cart.sweep.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.cart.sweep.pause-ms:250}")
+    private long pauseMs;
+
+    private final ScheduledExecutorService sweepTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Counter scannedCounter;
+    private Counter removedCounter;
+    private Timer sweepTimerMetric;
+
+    @PostConstruct
+    void init() {
+        scannedCounter = Counter.builder("coffeehub.cart.sweep.scanned")
+                .description("Abandoned guest carts examined by the sweeper")
+                .register(meterRegistry);
+        removedCounter = Counter.builder("coffeehub.cart.sweep.removed")
+                .description("Abandoned guest carts deleted by the sweeper")
+                .register(meterRegistry);
+        sweepTimerMetric = Timer.builder("coffeehub.cart.sweep.duration")
+                .description("Time taken by one full sweep")
+                .register(meterRegistry);
+        sweepTimer.scheduleWithFixedDelay(this::sweepSafely, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweepTimer.shutdownNow();
+    }
+
+    /** Runs one full pass over the carts table. Returns the number of carts deleted. */
+    public int sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(abandonedAfterHours);
+        Timestamp cutoffTimestamp = Timestamp.valueOf(cutoff);
+        long afterId = 0;
+        int scanned = 0;
+        int removed = 0;
+        long started = System.nanoTime();
+
+        while (!Thread.currentThread().isInterrupted()) {
+            Map<Long, CartKey> batch = new LinkedHashMap<>();
+            jdbcTemplate.query(SELECT_ABANDONED,
+                    rs -> {
+                        batch.put(rs.getLong("id"), CartKey.forSession(rs.getString("session_token"),
+                                rs.getObject("table_id", Long.class)));
+                    },
+                    afterId, cutoffTimestamp, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            int deleted = cartStore.removeAbandoned(batch, cutoff);
+            scanned += batch.size();
+            removed += deleted;
+            scannedCounter.increment(batch.size());
+            removedCounter.increment(deleted);
+
+            if (batch.size() < batchSize) {
+                break;
+            }
+            for (Long id : batch.keySet()) {
+                afterId = id;
+            }
+            pause();
+        }
+
+        sweepTimerMetric.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (scanned > 0) {
+            logger.info("Cart sweep removed {} of {} guest carts untouched since {}", removed, scanned, cutoff);
+        }
+        return removed;
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            // Next run starts over from the first cart
+            logger.error("Cart sweep failed", e);
+        }
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.coffeehub.service;
+
+import com.coffeehub.entity.Order;
+import com.coffeehub.entity.OrderItem;
+import com.coffeehub.entity.User;
+import com.coffeehub.repository.OrderRepository;
+import com.coffeehub.repository.OrderStatusHistoryRepository;
+import com.coffeehub.repository.UserRepository;
+import com.coffeehub.service.order.ChefChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Assigns confirmed orders to chefs. Chefs who are available and below their
+ * {@code maxActiveOrders} sit in a heap ordered by backlog, the summed preparation minutes of
+ * the orders they hold, then by spare capacity; a confirmed order goes to the top of the heap.
+ * When every chef is full, orders wait in confirmation order and are handed out as soon as
+ * an order leaves the kitchen.
+ * <p>
+ * Each chef's orders are estimated as a queue: started orders finish preparation minutes after
+ * they were started, the rest follow one after another. Every transition returns the
+ * assignments, estimates and chef loads it changed, for {@link OrderService} to write to the
+ * orders and users in its transaction. If that transaction rolls back, or a chef account is
+ * added, activated, disabled or changes role, the in-memory state is dropped and rebuilt from
+ * the database on the next call.
+ */
+@Service
+public class ChefScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChefScheduler.class);
+
+    private static final int DEFAULT_PREPARATION_MINUTES = 10;
+
+    private static final Comparator<ChefLoad> LEAST_LOADED = Comparator.comparingLong((ChefLoad chef) -> chef.backlogMinutes)
+            .thenComparingInt(chef -> chef.activeOrders - chef.capacity)
+            .thenComparingLong(chef -> chef.chefId);
+
+    private static final class ChefLoad {
+        private final long chefId;
+        private final int capacity;
+        private final boolean available;
+        private int activeOrders;
+        private long backlogMinutes;
+        // In assignment order
+        private final Map<Long, QueuedOrder> queue = new LinkedHashMap<>();
+
+        private ChefLoad(User chef) {
+            this.chefId = chef.getId();
+            this.capacity = chef.getMaxActiveOrders() != null ? chef.getMaxActiveOrders() : 0;
+            this.available = chef.getRole() == User.Role.CHEF && !Boolean.FALSE.equals(chef.getIsAvailable())
+                    && !Boolean.FALSE.equals(chef.getEnabled());
+        }
+
+        private boolean canTakeMore() {
+            return available && activeOrders < capacity;
+        }
+    }
+
+    private static final class QueuedOrder {
+        private final long orderId;
+        private final int workMinutes;
+        private LocalDateTime startedAt;
+
+        private QueuedOrder(long orderId, int workMinutes) {
+            this.orderId = orderId;
+            this.workMinutes = workMinutes;
+        }
+    }
+
+    /** What one transition changed. */
+    public static final class Changes {
+        private final Map<Long, Long> assignments = new LinkedHashMap<>();
+        private final Map<Long, LocalDateTime> estimates = new LinkedHashMap<>();
+        private final Map<Long, Integer> chefLoads = new LinkedHashMap<>();
+
+        /** Chef id per order newly assigned by the scheduler. */
+        public Map<Long, Long> getAssignments() {
+            return assignments;
+        }
+
+        /** Estimated ready time per order whose estimate was recomputed. */
+        public Map<Long, LocalDateTime> getEstimates() {
+            return estimates;
+        }
+
+        /** Active order count per chef whose load changed. */
+        public Map<Long, Integer> getChefLoads() {
+            return chefLoads;
+        }
+
+        public boolean isEmpty() {
+            return assignments.isEmpty() && estimates.isEmpty() && chefLoads.isEmpty();
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatusHistoryRepository orderStatusHistoryRepository;
+
+    private final PriorityQueue<ChefLoad> heap = new PriorityQueue<>(LEAST_LOADED);
+    private final Map<Long, ChefLoad> chefs = new HashMap<>();
+    private final Map<Long, ChefLoad> chefByOrder = new HashMap<>();
+    // Confirmed orders no chef had room for, oldest first
+    private final Map<Long, QueuedOrder> waiting = new LinkedHashMap<>();
+    private boolean loaded;
+
+    /** An order was confirmed: keeps its chef if it has one, otherwise assigns the least loaded chef. */
+    public synchronized Changes confirmed(Order order) {
+        Changes changes = begin();
+        if (order.getAssignedChef() != null) {
+            track(order, order.getAssignedChef(), changes);
+        } else if (!chefByOrder.containsKey(order.getId())) {
+            ChefLoad chef = heap.peek();
+            if (chef == null) {
+                waiting.putIfAbsent(order.getId(), new QueuedOrder(order.getId(), workMinutes(order)));
+                logger.info("No chef has capacity for order {}, {} orders waiting", order.getId(), waiting.size());
+                return changes;
+            }
+            // Already waiting when the load that just ran saw it confirmed
+            QueuedOrder queued = waiting.remove(order.getId());
+            if (queued == null) {
+                queued = new QueuedOrder(order.getId(), workMinutes(order));
+            }
+            enqueue(chef, queued, changes);
+            changes.assignments.put(order.getId(), chef.chefId);
+        }
+        return changes;
+    }
+
+    /** A chef was set on the order by hand or by whoever started it; moves the order to that chef. */
+    public synchronized Changes assigned(Order order, User chef) {
+        Changes changes = begin();
+        if (order.getStatus() == Order.OrderStatus.CONFIRMED || order.getStatus() == Order.OrderStatus.PREPARING) {
+            track(order, chef, changes);
+        }
+        return changes;
+    }
+
+    /** Preparation began; the order's estimate now runs from this moment. */
+    public synchronized Changes started(Order order) {
+        Changes changes = begin();
+        if (order.getAssignedChef() == null) {
+            return changes;
+        }
+        ChefLoad chef = track(order, order.getAssignedChef(), changes);
+        QueuedOrder queued = chef.queue.get(order.getId());
+        if (queued.startedAt == null) {
+            queued.startedAt = LocalDateTime.now();
+            estimate(chef, changes);
+        }
+        return changes;
+    }
+
+    /** The order left the kitchen (ready, cancelled or sent back); its chef takes the oldest waiting order. */
+    public synchronized Changes finished(Order order) {
+        Changes changes = begin();
+        if (waiting.remove(order.getId()) == null) {
+            dequeue(order.getId(), changes);
+        }
+        while (!waiting.isEmpty() && !heap.isEmpty()) {
+            Iterator<QueuedOrder> oldest = waiting.values().iterator();
+            QueuedOrder next = oldest.next();
+            oldest.remove();
+            ChefLoad chef = heap.peek();
+            enqueue(chef, next, changes);
+            changes.assignments.put(next.orderId, chef.chefId);
+        }
+        return changes;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChefChanged(ChefChangedEvent event) {
+        logger.info("Chef {} changed, reloading chef scheduler on next use", event.getChefId());
+        invalidate();
+    }
+
+    private Changes begin() {
+        if (!loaded) {
+            load();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        invalidate();
+                    }
+                }
+            });
+        }
+        return new Changes();
+    }
+
+    private synchronized void invalidate() {
+        loaded = false;
+    }
+
+    private void load() {
+        heap.clear();
+        chefs.clear();
+        chefByOrder.clear();
+        waiting.clear();
+
+        for (User chef : userRepository.findByRoleAndEnabledTrue(User.Role.CHEF)) {
+            ChefLoad load = new ChefLoad(chef);
+            chefs.put(load.chefId, load);
+        }
+
+        List<Order> active = new ArrayList<>(orderRepository.findByStatusIn(
+                List.of(Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING)));
+        active.sort(Comparator.comparing(Order::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Order::getId));
+        Map<Long, LocalDateTime> startedAt = preparationStarts(active);
+        for (Order order : active) {
+            QueuedOrder queued = new QueuedOrder(order.getId(), workMinutes(order));
+            if (order.getAssignedChef() == null) {
+                waiting.put(order.getId(), queued);
+                continue;
+            }
+            if (order.getStatus() == Order.OrderStatus.PREPARING) {
+                // Without a history row the order is treated as started now
+                queued.startedAt = startedAt.getOrDefault(order.getId(), LocalDateTime.now());
+            }
+            ChefLoad chef = chefs.computeIfAbsent(order.getAssignedChef().getId(), id -> new ChefLoad(order.getAssignedChef()));
+            chef.queue.put(queued.orderId, queued);
+            chef.activeOrders++;
+            chef.backlogMinutes += queued.workMinutes;
+            chefByOrder.put(queued.orderId, chef);
+        }
+
+        for (ChefLoad chef : chefs.values()) {
+            if (chef.canTakeMore()) {
+                heap.add(chef);
+            }
+        }
+        loaded = true;
+        logger.info("Chef scheduler loaded {} chefs, {} assigned and {} waiting orders",
+                chefs.size(), chefByOrder.size(), waiting.size());
+    }
+
+    // When each preparing order entered PREPARING, from its status history
+    private Map<Long, LocalDateTime> preparationStarts(List<Order> active) {
+        List<Long> preparing = new ArrayList<>();
+        for (Order order : active) {
+            if (order.getStatus() == Order.OrderStatus.PREPARING && order.getAssignedChef() != null) {
+                preparing.add(order.getId());
+            }
+        }
+        Map<Long, LocalDateTime> startedAt = new HashMap<>();
+        if (!preparing.isEmpty()) {
+            for (Object[] row : orderStatusHistoryRepository.findLatestStatusTimes(preparing, Order.OrderStatus.PREPARING)) {
+                startedAt.put((Long) row[0], (LocalDateTime) row[1]);
+            }
+        }
+        return startedAt;
+    }
+
+    private ChefLoad track(Order order, User chefUser, Changes changes) {
+        ChefLoad chef = chefs.computeIfAbsent(chefUser.getId(), id -> new ChefLoad(chefUser));
+        if (chefByOrder.get(order.getId()) == chef) {
+            return chef;
+        }
+        QueuedOrder queued = waiting.remove(order.getId());
+        if (queued == null) {
+            queued = dequeue(order.getId(), changes);
+        }
+        if (queued == null) {
+            queued = new QueuedOrder(order.getId(), workMinutes(order));
+        }
+        enqueue(chef, queued, changes);
+        return chef;
+    }
+
+    private void enqueue(ChefLoad chef, QueuedOrder queued, Changes changes) {
+        // Out of the heap while its ordering fields change
+        heap.remove(chef);
+        chef.queue.put(queued.orderId, queued);
+        chef.activeOrders++;
+        chef.backlogMinutes += queued.workMinutes;
+        chefByOrder.put(queued.orderId, chef);
+        if (chef.canTakeMore()) {
+            heap.add(chef);
+        }
+        changes.chefLoads.put(chef.chefId, chef.activeOrders);
+        estimate(chef, changes);
+    }
+
+    private QueuedOrder dequeue(long orderId, Changes changes) {
+        ChefLoad chef = chefByOrder.remove(orderId);
+        if (chef == null) {
+            return null;
+        }
+        heap.remove(chef);
+        QueuedOrder queued = chef.queue.remove(orderId);
+        chef.activeOrders--;
+        chef.backlogMinutes -= queued.workMinutes;
+        if (chef.canTakeMore()) {
+            heap.add(chef);
+        }
+        changes.chefLoads.put(chef.chefId, chef.activeOrders);
+        estimate(chef, changes);
+        return queued;
+    }
+
+    private void estimate(ChefLoad chef, Changes changes) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cursor = now;
+        // Orders already being prepared finish first, then the rest in assignment order
+        List<QueuedOrder> queue = new ArrayList<>(chef.queue.values());
+        queue.sort(Comparator.comparing((QueuedOrder queued) -> queued.startedAt == null));
+        for (QueuedOrder queued : queue) {
+            LocalDateTime readyAt;
+            if (queued.startedAt != null) {
+                LocalDateTime due = queued.startedAt.plusMinutes(queued.workMinutes);
+                readyAt = due.isAfter(now) ? due : now;
+                if (readyAt.isAfter(cursor)) {
+                    cursor = readyAt;
+                }
+            } else {
+                readyAt = cursor.plusMinutes(queued.workMinutes);
+                cursor = readyAt;
+            }
+            changes.estimates.put(queued.orderId, readyAt);
+        }
+    }
+
+    /** Total preparation minutes of the order's lines. */
+    static int workMinutes(Order order) {
+        int minutes = 0;
+        for (OrderItem item : order.getOrderItems()) {
+            Integer preparation = item.getMenuItem() != null ? item.getMenuItem().getPreparationTime() : null;
+            int quantity = item.getQuantity() != null ? item.getQuantity() : 1;
+            minutes += (preparation != null ? preparation : DEFAULT_PREPARATION_MINUTES) * quantity;
+        }
+        return minutes;
+    }
+}
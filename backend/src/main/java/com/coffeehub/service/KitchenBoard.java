@@ -0,0 +1,208 @@
+package com.coffeehub.service;
+
+import com.coffeehub.dto.response.KitchenBoardResponse;
+import com.coffeehub.dto.response.OrderResponse;
+import com.coffeehub.dto.websocket.KitchenBoardUpdateMessage;
+import com.coffeehub.entity.Order;
+import com.coffeehub.service.order.KitchenOrderChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Active kitchen orders held in memory, in the order chefs work them: preparing, confirmed,
+ * pending, then ready, oldest first within each status. Filled from the database once at
+ * startup and then kept current by the order changes {@link OrderService} publishes, so
+ * dashboards read the board instead of querying {@code orders}.
+ * <p>
+ * Every change gets the next sequence number and is pushed to {@code /topic/kitchen/orders}.
+ * A dashboard loads a snapshot, applies pushed changes with a higher sequence, and reloads if
+ * it sees a gap. The board only sees changes made on this node.
+ * <p>
+ * Changes are published after their transactions commit, so they can arrive out of order, and
+ * the startup read can return rows older than changes applied while it ran. Each order's
+ * {@code updatedAt} decides: a state older than the one the board holds is ignored. Orders
+ * that left the board are remembered for a while so a late older state cannot bring them back.
+ */
+@Service
+public class KitchenBoard {
+
+    private static final Logger logger = LoggerFactory.getLogger(KitchenBoard.class);
+
+    private static final Duration REMOVED_RETENTION = Duration.ofMinutes(10);
+
+    private static final Comparator<Rank> BOARD_ORDER = Comparator.comparingInt(Rank::statusRank)
+            .thenComparing(Rank::createdAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(Rank::orderId);
+
+    private record Rank(int statusRank, LocalDateTime createdAt, long orderId) {
+    }
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    // Guarded by the board's monitor; snapshots take it too so the sequence matches the contents
+    private final TreeMap<Rank, OrderResponse> orders = new TreeMap<>(BOARD_ORDER);
+    private final Map<Long, Rank> ranks = new HashMap<>();
+    // updatedAt of orders that left the board, roughly oldest first
+    private final Map<Long, LocalDateTime> removed = new LinkedHashMap<>();
+
+    // Seeded from the clock so sequences keep increasing across restarts
+    private long sequence = System.currentTimeMillis();
+    private volatile boolean loaded;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Merges the active orders read from the database, in a read that started at {@code readAt},
+     * into the board. Changes applied while the read ran are kept when they are newer than the
+     * rows it returned; orders it did not return are dropped unless they changed after it started.
+     */
+    public synchronized void load(Collection<OrderResponse> activeOrders, LocalDateTime readAt) {
+        Map<Long, OrderResponse> read = new HashMap<>();
+        for (OrderResponse order : activeOrders) {
+            if (isActive(order.getStatus())) {
+                read.put(order.getId(), order);
+            }
+        }
+        Iterator<Map.Entry<Rank, OrderResponse>> entries = orders.entrySet().iterator();
+        while (entries.hasNext()) {
+            OrderResponse current = entries.next().getValue();
+            if (!read.containsKey(current.getId()) && isBefore(current.getUpdatedAt(), readAt)) {
+                entries.remove();
+                ranks.remove(current.getId());
+            }
+        }
+        for (OrderResponse order : read.values()) {
+            if (!isStale(order)) {
+                remove(order.getId());
+                put(order);
+            }
+        }
+        // The read already reflects removals older than itself
+        pruneRemoved(readAt);
+        sequence++;
+        loaded = true;
+        logger.info("Kitchen board loaded with {} active orders at sequence {}", orders.size(), sequence);
+    }
+
+    public synchronized KitchenBoardResponse snapshot() {
+        KitchenBoardResponse response = new KitchenBoardResponse();
+        response.setSequence(sequence);
+        response.setOrders(new ArrayList<>(orders.values()));
+        return response;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(KitchenOrderChangedEvent event) {
+        apply(event.getOrder());
+    }
+
+    synchronized void apply(OrderResponse order) {
+        if (isStale(order)) {
+            logger.debug("Ignoring change to order {} older than the board's", order.getId());
+            return;
+        }
+        boolean active = isActive(order.getStatus());
+        boolean wasOnBoard = remove(order.getId());
+        // Re-inserted so the map stays roughly in removal order
+        removed.remove(order.getId());
+        if (!active) {
+            removed.put(order.getId(), order.getUpdatedAt());
+            pruneRemoved(LocalDateTime.now().minus(REMOVED_RETENTION));
+            if (!wasOnBoard) {
+                return;
+            }
+        }
+
+        KitchenBoardUpdateMessage message = new KitchenBoardUpdateMessage();
+        message.setSequence(++sequence);
+        message.setOrderId(String.valueOf(order.getId()));
+        message.setTimestamp(System.currentTimeMillis());
+        if (active) {
+            put(order);
+            message.setType(KitchenBoardUpdateMessage.ORDER_UPSERTED);
+            message.setOrder(order);
+        } else {
+            message.setType(KitchenBoardUpdateMessage.ORDER_REMOVED);
+        }
+        // Sent under the monitor so subscribers receive changes in sequence order
+        webSocketService.notifyKitchenBoardUpdate(message);
+    }
+
+    // Whether the board holds a newer state of the order than this one
+    private boolean isStale(OrderResponse order) {
+        Rank rank = ranks.get(order.getId());
+        LocalDateTime known = rank != null ? orders.get(rank).getUpdatedAt() : removed.get(order.getId());
+        return known != null && order.getUpdatedAt() != null && order.getUpdatedAt().isBefore(known);
+    }
+
+    private boolean remove(Long orderId) {
+        Rank rank = ranks.remove(orderId);
+        if (rank == null) {
+            return false;
+        }
+        orders.remove(rank);
+        return true;
+    }
+
+    private void pruneRemoved(LocalDateTime before) {
+        Iterator<LocalDateTime> times = removed.values().iterator();
+        while (times.hasNext()) {
+            LocalDateTime removedAt = times.next();
+            if (!isBefore(removedAt, before)) {
+                break;
+            }
+            times.remove();
+        }
+    }
+
+    private static boolean isBefore(LocalDateTime time, LocalDateTime other) {
+        return time == null || time.isBefore(other);
+    }
+
+    private void put(OrderResponse order) {
+        Rank rank = new Rank(statusRank(order.getStatus()), order.getCreatedAt(), order.getId());
+        orders.put(rank, order);
+        ranks.put(order.getId(), rank);
+    }
+
+    private static boolean isActive(Order.OrderStatus status) {
+        return statusRank(status) < Integer.MAX_VALUE;
+    }
+
+    // Same ranking as OrderRepository.findActiveKitchenOrders
+    private static int statusRank(Order.OrderStatus status) {
+        if (status == null) {
+            return Integer.MAX_VALUE;
+        }
+        switch (status) {
+            case PREPARING:
+                return 1;
+            case CONFIRMED:
+                return 2;
+            case PENDING:
+                return 3;
+            case READY:
+                return 4;
+            default:
+                return Integer.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.coffeehub.service;
+
+import com.coffeehub.entity.Category;
+import com.coffeehub.entity.MenuItem;
+import com.coffeehub.entity.MenuSchedule;
+import com.coffeehub.entity.Modifier;
+import com.coffeehub.repository.CategoryRepository;
+import com.coffeehub.repository.MenuItemRepository;
+import com.coffeehub.repository.MenuScheduleRepository;
+import com.coffeehub.repository.ModifierRepository;
+import com.coffeehub.service.catalog.MenuCatalog;
+import com.coffeehub.service.catalog.MenuChangeLog;
+import com.coffeehub.service.catalog.MenuChangedEvent;
+import com.coffeehub.service.catalog.MenuScheduleTimeline;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current {@link MenuCatalog} snapshot.
+ * The snapshot is loaded on first use and rebuilt after every committed menu write,
+ * then swapped in with a single volatile write so readers never see a half-built menu.
+ * Schedule windows are baked into each snapshot; a timer rebuilds it at the next minute
+ * where a scheduled category or item opens or closes.
+ */
+@Service
+public class MenuCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuCatalogService.class);
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private ModifierRepository modifierRepository;
+
+    @Autowired
+    private MenuScheduleRepository menuScheduleRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.menu.change-log-size:5000}")
+    private int changeLogSize;
+
+    @Value("${app.menu.schedule.location:}")
+    private String scheduleLocation;
+
+    @Value("${app.menu.schedule.time-zone:}")
+    private String scheduleTimeZone;
+
+    private final ScheduledExecutorService transitionTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "menu-schedule");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ScheduledFuture<?> nextTransition;
+
+    // Seeded from the clock so versions keep increasing across restarts
+    private final AtomicLong versionSequence = new AtomicLong(System.currentTimeMillis());
+
+    private volatile MenuCatalog catalog;
+
+    public MenuCatalog getCatalog() {
+        MenuCatalog current = catalog;
+        if (current == null) {
+            synchronized (this) {
+                current = catalog;
+                if (current == null) {
+                    current = rebuild();
+                }
+            }
+        }
+        return current;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        logger.info("Menu changed ({}), rebuilding catalog", event.getReason());
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Failed to rebuild menu catalog, keeping version {}",
+                    catalog != null ? catalog.getVersion() : 0, e);
+        }
+    }
+
+    public synchronized MenuCatalog rebuild() {
+        // Runs after the writer's commit, so it needs its own transaction
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+
+        LocalDateTime now = LocalDateTime.now(zone());
+        MenuCatalog rebuilt = template.execute(status -> {
+            List<Category> categories = categoryRepository.findAll();
+            List<Modifier> modifiers = modifierRepository.findAll();
+            List<MenuItem> items = menuItemRepository.findAllWithCategoryAndModifiers();
+            List<MenuSchedule> schedules = menuScheduleRepository.findByActiveTrue();
+            MenuScheduleTimeline timeline = MenuScheduleTimeline.compile(schedules, scheduleLocation);
+            return MenuCatalog.build(versionSequence.incrementAndGet(), categories, items, modifiers, timeline, now);
+        });
+
+        MenuCatalog previous = catalog;
+        if (previous != null) {
+            MenuChangeLog log = previous.getChangeLog().append(previous, rebuilt, changeLogSize);
+            rebuilt = rebuilt.withChangeLog(log);
+        }
+
+        catalog = rebuilt;
+        logger.info("Menu catalog version {} built: {} categories, {} items, {} modifiers, {} logged changes",
+                rebuilt.getVersion(), rebuilt.getCategoriesById().size(),
+                rebuilt.getItemsById().size(), rebuilt.getModifiersById().size(),
+                rebuilt.getChangeLog().getEntries().size());
+
+        scheduleNextTransition(rebuilt.getScheduleTimeline().nextTransitionAfter(now));
+        return rebuilt;
+    }
+
+    /**
+     * Whether an item is inside its own and its category's schedule windows right now.
+     * Unlike the snapshot lists this does not wait for the boundary timer.
+     */
+    public boolean isWithinSchedule(Long categoryId, Long menuItemId) {
+        return getCatalog().getScheduleTimeline().slotAt(LocalDateTime.now(zone())).isOpen(categoryId, menuItemId);
+    }
+
+    private void scheduleNextTransition(LocalDateTime transition) {
+        if (nextTransition != null) {
+            nextTransition.cancel(false);
+            nextTransition = null;
+        }
+        if (transition == null) {
+            return;
+        }
+        ZonedDateTime at = transition.atZone(zone());
+        long delayMs = Math.max(0, Duration.between(ZonedDateTime.now(zone()), at).toMillis());
+        nextTransition = transitionTimer.schedule(this::onScheduleTransition, delayMs, TimeUnit.MILLISECONDS);
+        logger.debug("Next menu schedule transition at {}", at);
+    }
+
+    private void onScheduleTransition() {
+        MenuCatalog current = catalog;
+        LocalDateTime now = LocalDateTime.now(zone());
+        MenuScheduleTimeline.Slot slot = current.getScheduleTimeline().slotAt(now);
+        if (slot == current.getScheduleSlot()) {
+            // Woke up just before the boundary, or the state was already applied by another rebuild
+            synchronized (this) {
+                scheduleNextTransition(current.getScheduleTimeline().nextTransitionAfter(now));
+            }
+            return;
+        }
+        logger.info("Menu schedule transition at {}, rebuilding catalog", now);
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Failed to apply menu schedule transition, retrying in one minute", e);
+            synchronized (this) {
+                if (nextTransition != null) {
+                    nextTransition.cancel(false);
+                }
+                nextTransition = transitionTimer.schedule(this::onScheduleTransition, 1, TimeUnit.MINUTES);
+            }
+        }
+    }
+
+    private ZoneId zone() {
+        return scheduleTimeZone == null || scheduleTimeZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(scheduleTimeZone);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        transitionTimer.shutdownNow();
+    }
+}
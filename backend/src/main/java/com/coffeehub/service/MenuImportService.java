@@ -0,0 +1,356 @@
+package com.coffeehub.service;
+
+import com.coffeehub.dto.request.MenuItemImportRequest;
+import com.coffeehub.dto.response.MenuImportSummary;
+import com.coffeehub.exception.ResourceNotFoundException;
+import com.coffeehub.service.catalog.MenuChangedEvent;
+import com.coffeehub.service.menuimport.CsvMenuImportReader;
+import com.coffeehub.service.menuimport.JsonMenuImportReader;
+import com.coffeehub.service.menuimport.MenuImportJob;
+import com.coffeehub.service.menuimport.MenuImportReader;
+import com.coffeehub.service.menuimport.MenuImportRowException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bulk menu import.
+ * Rows are streamed from the input, deduplicated against name/category keys loaded once
+ * up front, and inserted with JDBC batches, one transaction per chunk. Jobs run one at a
+ * time on a dedicated worker so concurrent imports cannot race on the same keys.
+ */
+@Service
+public class MenuImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuImportService.class);
+
+    private static final String INSERT_CATEGORY =
+            "INSERT INTO categories (name, active, display_order, created_at) VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_MENU_ITEM =
+            "INSERT INTO menu_items (name, description, price, image_url, category_id, available, preparation_time, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.menu.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.menu.import.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    @Value("${app.menu.import.sync-wait-seconds:20}")
+    private long syncWaitSeconds;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "menu-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, MenuImportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Spools the body to a temporary file and imports it in the background.
+     * CSV is expected when the content type says so; anything else is read as a JSON array.
+     */
+    public MenuImportJob submit(InputStream body, String contentType) throws IOException {
+        boolean csv = contentType != null && contentType.toLowerCase(Locale.ROOT).contains("csv");
+        Path spool = Files.createTempFile("menu-import-", csv ? ".csv" : ".json");
+        try {
+            Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+
+        MenuImportJob job = register(csv ? "CSV" : "JSON");
+        logger.info("Queued menu import job {} ({} bytes of {})", job.getId(), Files.size(spool), csv ? "CSV" : "JSON");
+
+        executor.submit(() -> {
+            try (InputStream input = Files.newInputStream(spool);
+                 MenuImportReader reader = csv
+                         ? new CsvMenuImportReader(input)
+                         : new JsonMenuImportReader(objectMapper, input)) {
+                run(job, reader);
+            } catch (Exception e) {
+                logger.error("Menu import job {} failed", job.getId(), e);
+                job.fail(e.getMessage());
+            } finally {
+                try {
+                    Files.deleteIfExists(spool);
+                } catch (IOException e) {
+                    logger.warn("Could not delete menu import spool file {}", spool, e);
+                }
+            }
+        });
+        return job;
+    }
+
+    /**
+     * Imports an already parsed list on the import worker and waits a bounded time for it.
+     * The returned job is finished unless it was still queued behind another import, or
+     * still running, when the wait ran out; the caller then polls it like a streaming import.
+     */
+    public MenuImportJob importItems(List<MenuItemImportRequest> requests) {
+        MenuImportJob job = register("JSON");
+        if (requests == null || requests.isEmpty()) {
+            logger.warn("No menu items provided for import");
+            job.start();
+            job.complete();
+            return job;
+        }
+
+        Future<?> result = executor.submit(() -> {
+            try {
+                run(job, MenuImportReader.of(requests));
+            } catch (Exception e) {
+                logger.error("Menu import job {} failed", job.getId(), e);
+                job.fail(e.getMessage());
+            }
+        });
+
+        try {
+            result.get(syncWaitSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            logger.info("Menu import job {} still {} after {} s, leaving it to finish in the background",
+                    job.getId(), job.getStatus(), syncWaitSeconds);
+            return job;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for menu import " + job.getId());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Menu import " + job.getId() + " failed", e.getCause());
+        }
+
+        if (job.getStatus() == MenuImportJob.Status.FAILED) {
+            throw new IllegalStateException(job.toResponse().getFailureMessage());
+        }
+        return job;
+    }
+
+    public MenuImportJob getJob(String jobId) {
+        MenuImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Menu import job", "id", jobId);
+        }
+        return job;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private MenuImportJob register(String format) {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+
+        MenuImportJob job = new MenuImportJob(UUID.randomUUID().toString(), format);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    private void run(MenuImportJob job, MenuImportReader reader) throws IOException {
+        job.start();
+        long started = System.currentTimeMillis();
+
+        Map<String, Long> categoryIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM categories ORDER BY id",
+                rs -> { categoryIds.putIfAbsent(categoryKey(rs.getString("name")), rs.getLong("id")); });
+        Set<String> itemKeys = new HashSet<>();
+        jdbcTemplate.query("SELECT category_id, name FROM menu_items",
+                rs -> { itemKeys.add(itemKey(rs.getLong("category_id"), rs.getString("name"))); });
+        logger.info("Menu import job {} started with {} known categories and {} known items",
+                job.getId(), categoryIds.size(), itemKeys.size());
+
+        boolean changed = false;
+        try {
+            List<MenuItemImportRequest> chunk = new ArrayList<>(chunkSize);
+            long invalidRows = 0;
+            long row = 0;
+            while (true) {
+                MenuItemImportRequest request;
+                try {
+                    request = reader.next();
+                } catch (MenuImportRowException e) {
+                    row++;
+                    invalidRows++;
+                    job.recordError("Row " + row + ": " + e.getMessage());
+                    continue;
+                }
+                if (request == null) {
+                    break;
+                }
+                row++;
+
+                String violation = validate(request);
+                if (violation != null) {
+                    invalidRows++;
+                    job.recordError("Row " + row + " (" + request.getName() + "): " + violation);
+                    continue;
+                }
+
+                chunk.add(request);
+                if (chunk.size() >= chunkSize) {
+                    changed |= commitChunk(job, chunk, invalidRows, categoryIds, itemKeys);
+                    chunk.clear();
+                    invalidRows = 0;
+                }
+            }
+            if (!chunk.isEmpty() || invalidRows > 0) {
+                changed |= commitChunk(job, chunk, invalidRows, categoryIds, itemKeys);
+            }
+            job.complete();
+            logger.info("Menu import job {} completed in {} ms: {}", job.getId(),
+                    System.currentTimeMillis() - started, job.toSummary().getMessage());
+        } finally {
+            if (changed) {
+                eventPublisher.publishEvent(new MenuChangedEvent("menu import " + job.getId()));
+            }
+        }
+    }
+
+    /**
+     * Inserts one chunk in its own transaction. The shared key sets are only updated after
+     * the commit, so a rolled-back chunk leaves them consistent with the database.
+     */
+    private boolean commitChunk(MenuImportJob job, List<MenuItemImportRequest> chunk, long invalidRows,
+                                Map<String, Long> categoryIds, Set<String> itemKeys) {
+        Map<String, Long> newCategories = new HashMap<>();
+        Set<String> newItems = new HashSet<>();
+        long[] skipped = {invalidRows};
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.executeWithoutResult(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> batch = new ArrayList<>(chunk.size());
+
+            for (MenuItemImportRequest request : chunk) {
+                String name = request.getCategory().trim();
+                String categoryKey = categoryKey(name);
+                Long categoryId = categoryIds.get(categoryKey);
+                if (categoryId == null) {
+                    categoryId = newCategories.get(categoryKey);
+                }
+                if (categoryId == null) {
+                    categoryId = insertCategory(name, now);
+                    newCategories.put(categoryKey, categoryId);
+                    logger.info("Category not found, created new: {}", name);
+                }
+
+                String itemKey = itemKey(categoryId, request.getName());
+                if (itemKeys.contains(itemKey) || !newItems.add(itemKey)) {
+                    logger.debug("Skipping duplicate item: {} in category: {}", request.getName(), name);
+                    skipped[0]++;
+                    continue;
+                }
+
+                batch.add(new Object[]{
+                        request.getName().trim(),
+                        request.getDescription(),
+                        request.getPrice(),
+                        request.getImageUrl(),
+                        categoryId,
+                        request.getAvailable() != null ? request.getAvailable() : true,
+                        request.getPreparationTime() != null ? request.getPreparationTime() : 10,
+                        now
+                });
+            }
+
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_MENU_ITEM, batch);
+            }
+        });
+
+        categoryIds.putAll(newCategories);
+        itemKeys.addAll(newItems);
+        job.recordChunk(chunk.size() + invalidRows, newItems.size(), skipped[0], newCategories.size());
+        logger.debug("Menu import job {} committed chunk: {} items, {} categories",
+                job.getId(), newItems.size(), newCategories.size());
+        return !newItems.isEmpty() || !newCategories.isEmpty();
+    }
+
+    private Long insertCategory(String name, Timestamp now) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_CATEGORY, Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, name);
+            statement.setBoolean(2, true);
+            statement.setInt(3, 0);
+            statement.setTimestamp(4, now);
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    private String validate(MenuItemImportRequest request) {
+        Set<ConstraintViolation<MenuItemImportRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .reduce((a, b) -> a + "; " + b)
+                .orElse(null);
+    }
+
+    private static String categoryKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String itemKey(long categoryId, String name) {
+        return categoryId + ":" + name.trim().toLowerCase(Locale.ROOT);
+    }
+}
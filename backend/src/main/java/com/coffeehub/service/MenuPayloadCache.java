@@ -0,0 +1,118 @@
+package com.coffeehub.service;
+
+import com.coffeehub.dto.response.ApiResponse;
+import com.coffeehub.service.catalog.MenuCatalog;
+import com.coffeehub.service.catalog.MenuPayload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Renders public menu responses once per catalog version.
+ * Each body is serialized and gzipped a single time and then served as raw bytes, so a
+ * repeat request costs a map lookup (or just an ETag comparison when the client revalidates).
+ * Note that the {@link ApiResponse} timestamp inside a cached body is the render time; it is
+ * left out of the ETag, so bodies with the same data revalidate across renders and versions,
+ * and the tag is sent as a weak validator.
+ */
+@Service
+public class MenuPayloadCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuPayloadCache.class);
+
+    @Autowired
+    private MenuCatalogService menuCatalogService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Generation generation = new Generation(-1);
+
+    /**
+     * Body for the key, rendered from one catalog snapshot so the data and the reported
+     * version always agree.
+     */
+    public MenuPayload get(String key, Function<MenuCatalog, ?> data) {
+        MenuCatalog catalog = menuCatalogService.getCatalog();
+        Generation current = currentGeneration(catalog.getVersion());
+        if (current.version != catalog.getVersion()) {
+            // A newer catalog was published after this one was read; never cache older data under it
+            return render(key, catalog.getVersion(), data.apply(catalog));
+        }
+        return current.payloads.computeIfAbsent(key, k -> render(k, catalog.getVersion(), data.apply(catalog)));
+    }
+
+    /**
+     * Renders a body without caching it, for keys that are not worth keeping (e.g. unknown ids).
+     */
+    public MenuPayload render(String key, Function<MenuCatalog, ?> data) {
+        MenuCatalog catalog = menuCatalogService.getCatalog();
+        return render(key, catalog.getVersion(), data.apply(catalog));
+    }
+
+    private Generation currentGeneration(long version) {
+        Generation current = generation;
+        if (current.version >= version) {
+            return current;
+        }
+        synchronized (this) {
+            if (generation.version < version) {
+                generation = new Generation(version);
+            }
+            return generation;
+        }
+    }
+
+    private MenuPayload render(String key, long version, Object data) {
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(ApiResponse.success(data));
+            byte[] gzip = gzip(identity);
+            // Tagged by the data alone: the wrapper's timestamp and the catalog version do not
+            // change what the client holds
+            String etag = "\"" + HexFormat.of().formatHex(sha256(objectMapper.writeValueAsBytes(data)), 0, 16) + "\"";
+            logger.debug("Rendered menu payload {} for catalog version {}: {} bytes, {} gzipped",
+                    key, version, identity.length, gzip.length);
+            return new MenuPayload(version, etag, identity, gzip);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render menu payload " + key, e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Generation {
+        private final long version;
+        private final Map<String, MenuPayload> payloads = new ConcurrentHashMap<>();
+
+        private Generation(long version) {
+            this.version = version;
+        }
+    }
+}
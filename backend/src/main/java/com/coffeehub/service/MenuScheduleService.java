@@ -0,0 +1,160 @@
+package com.coffeehub.service;
+
+import com.coffeehub.dto.request.MenuScheduleRequest;
+import com.coffeehub.dto.response.CategoryResponse;
+import com.coffeehub.dto.response.MenuItemResponse;
+import com.coffeehub.dto.response.MenuScheduleResponse;
+import com.coffeehub.entity.MenuSchedule;
+import com.coffeehub.exception.ResourceNotFoundException;
+import com.coffeehub.repository.MenuScheduleRepository;
+import com.coffeehub.service.catalog.MenuCatalog;
+import com.coffeehub.service.catalog.MenuChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Admin management of menu schedule rules. Every write republishes the catalog, which
+ * recompiles the rules into its availability timeline.
+ */
+@Service
+@Transactional
+public class MenuScheduleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuScheduleService.class);
+
+    @Autowired
+    private MenuScheduleRepository menuScheduleRepository;
+
+    @Autowired
+    private MenuCatalogService menuCatalogService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public List<MenuScheduleResponse> getAllSchedules() {
+        MenuCatalog catalog = menuCatalogService.getCatalog();
+        return menuScheduleRepository.findAllByOrderByTargetTypeAscTargetIdAscStartTimeAsc().stream()
+                .map(schedule -> convertToResponse(schedule, catalog))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<MenuScheduleResponse> getSchedulesFor(MenuSchedule.TargetType targetType, Long targetId) {
+        MenuCatalog catalog = menuCatalogService.getCatalog();
+        return menuScheduleRepository.findByTargetTypeAndTargetId(targetType, targetId).stream()
+                .map(schedule -> convertToResponse(schedule, catalog))
+                .collect(Collectors.toList());
+    }
+
+    public MenuScheduleResponse createSchedule(MenuScheduleRequest request) {
+        logger.info("Creating menu schedule for {} {}", request.getTargetType(), request.getTargetId());
+
+        MenuSchedule schedule = new MenuSchedule();
+        apply(schedule, request);
+
+        MenuSchedule saved = menuScheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new MenuChangedEvent("schedule created"));
+        logger.info("Menu schedule created successfully with id: {}", saved.getId());
+        return convertToResponse(saved, menuCatalogService.getCatalog());
+    }
+
+    public MenuScheduleResponse updateSchedule(Long id, MenuScheduleRequest request) {
+        logger.info("Updating menu schedule with id: {}", id);
+
+        MenuSchedule schedule = menuScheduleRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Menu schedule not found with id: " + id));
+        apply(schedule, request);
+
+        MenuSchedule saved = menuScheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new MenuChangedEvent("schedule updated"));
+        logger.info("Menu schedule updated successfully with id: {}", id);
+        return convertToResponse(saved, menuCatalogService.getCatalog());
+    }
+
+    public void deleteSchedule(Long id) {
+        logger.info("Deleting menu schedule with id: {}", id);
+
+        MenuSchedule schedule = menuScheduleRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Menu schedule not found with id: " + id));
+
+        menuScheduleRepository.delete(schedule);
+        eventPublisher.publishEvent(new MenuChangedEvent("schedule deleted"));
+        logger.info("Menu schedule deleted successfully with id: {}", id);
+    }
+
+    private void apply(MenuSchedule schedule, MenuScheduleRequest request) {
+        MenuCatalog catalog = menuCatalogService.getCatalog();
+        if (request.getTargetType() == MenuSchedule.TargetType.CATEGORY
+                && catalog.findCategory(request.getTargetId()) == null) {
+            throw new ResourceNotFoundException("Category not found with id: " + request.getTargetId());
+        }
+        if (request.getTargetType() == MenuSchedule.TargetType.MENU_ITEM
+                && catalog.findItem(request.getTargetId()) == null) {
+            throw new ResourceNotFoundException("Menu item not found with id: " + request.getTargetId());
+        }
+
+        schedule.setName(request.getName());
+        schedule.setTargetType(request.getTargetType());
+        schedule.setTargetId(request.getTargetId());
+        schedule.setDaysOfWeek(toDaysMask(request.getDays()));
+        schedule.setStartTime(request.getStartTime());
+        schedule.setEndTime(request.getEndTime());
+        schedule.setLocation(request.getLocation() != null && !request.getLocation().isBlank()
+                ? request.getLocation().trim() : null);
+        schedule.setActive(request.getActive() != null ? request.getActive() : true);
+    }
+
+    private static int toDaysMask(List<DayOfWeek> days) {
+        if (days == null || days.isEmpty()) {
+            return MenuSchedule.ALL_DAYS;
+        }
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= 1 << (day.getValue() - 1);
+        }
+        return mask;
+    }
+
+    private static List<DayOfWeek> toDays(Integer mask) {
+        int bits = mask != null ? mask : MenuSchedule.ALL_DAYS;
+        List<DayOfWeek> days = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((bits & (1 << (day.getValue() - 1))) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    private MenuScheduleResponse convertToResponse(MenuSchedule schedule, MenuCatalog catalog) {
+        MenuScheduleResponse response = new MenuScheduleResponse();
+        response.setId(schedule.getId());
+        response.setName(schedule.getName());
+        response.setTargetType(schedule.getTargetType());
+        response.setTargetId(schedule.getTargetId());
+        if (schedule.getTargetType() == MenuSchedule.TargetType.CATEGORY) {
+            CategoryResponse category = catalog.findCategory(schedule.getTargetId());
+            response.setTargetName(category != null ? category.getName() : null);
+        } else {
+            MenuItemResponse item = catalog.findItem(schedule.getTargetId());
+            response.setTargetName(item != null ? item.getName() : null);
+        }
+        response.setDays(toDays(schedule.getDaysOfWeek()));
+        response.setStartTime(schedule.getStartTime());
+        response.setEndTime(schedule.getEndTime());
+        response.setLocation(schedule.getLocation());
+        response.setActive(schedule.getActive());
+        response.setCreatedAt(schedule.getCreatedAt());
+        return response;
+    }
+}
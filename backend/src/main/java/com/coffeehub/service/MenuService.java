@@ -1,9 +1,10 @@
 package com.coffeehub.service;
 
-import com.coffeehub.dto.request.MenuItemImportRequest;
 import com.coffeehub.dto.response.CategoryResponse;
+import com.coffeehub.dto.response.FacetCountResponse;
+import com.coffeehub.dto.response.MenuChangesResponse;
+import com.coffeehub.dto.response.MenuFacetsResponse;
 import com.coffeehub.dto.response.MenuItemResponse;
-import com.coffeehub.dto.response.MenuImportSummary;
 import com.coffeehub.dto.response.ModifierResponse;
 import com.coffeehub.entity.Category;
 import com.coffeehub.entity.MenuItem;
@@ -12,14 +13,24 @@ import com.coffeehub.exception.ResourceNotFoundException;
 import com.coffeehub.repository.CategoryRepository;
 import com.coffeehub.repository.MenuItemRepository;
 import com.coffeehub.repository.ModifierRepository;
+import com.coffeehub.service.catalog.MenuCatalog;
+import com.coffeehub.service.catalog.MenuChange;
+import com.coffeehub.service.catalog.MenuChangedEvent;
+import com.coffeehub.service.catalog.MenuFacetIndex;
+import com.coffeehub.service.catalog.MenuResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,19 +48,33 @@ public class MenuService {
     @Autowired
     private ModifierRepository modifierRepository;
 
+    @Autowired
+    private MenuCatalogService menuCatalogService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Category Methods
+    // Read methods are served from the in-memory catalog and never open a transaction
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CategoryResponse> getAllCategories() {
         logger.info("Fetching all active categories");
-        return categoryRepository.findByActiveTrueOrderByDisplayOrderAsc().stream()
-                .map(this::convertToCategoryResponse)
-                .collect(Collectors.toList());
+        return catalog().getActiveCategories();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public boolean categoryExists(Long id) {
+        return catalog().findCategory(id) != null;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public CategoryResponse getCategoryById(Long id) {
         logger.info("Fetching category by id: {}", id);
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
-        return convertToCategoryResponse(category);
+        CategoryResponse category = catalog().findCategory(id);
+        if (category == null) {
+            throw new ResourceNotFoundException("Category not found with id: " + id);
+        }
+        return category;
     }
 
     public CategoryResponse createCategory(Category category) {
@@ -60,6 +85,7 @@ public class MenuService {
         }
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new MenuChangedEvent("category created"));
         logger.info("Category created successfully with id: {}", savedCategory.getId());
         return convertToCategoryResponse(savedCategory);
     }
@@ -81,6 +107,7 @@ public class MenuService {
         category.setActive(categoryDetails.getActive());
 
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new MenuChangedEvent("category updated"));
         logger.info("Category updated successfully with id: {}", id);
         return convertToCategoryResponse(updatedCategory);
     }
@@ -98,29 +125,31 @@ public class MenuService {
         }
 
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new MenuChangedEvent("category deleted"));
         logger.info("Category deleted successfully with id: {}", id);
     }
 
     // Menu Item Methods
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<MenuItemResponse> getAllMenuItems() {
         logger.info("Fetching all available menu items");
-        return menuItemRepository.findAvailableMenuItemsWithActiveCategory().stream()
-                .map(this::convertToMenuItemResponse)
-                .collect(Collectors.toList());
+        return catalog().getAvailableItems();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<MenuItemResponse> getMenuItemsByCategory(Long categoryId) {
         logger.info("Fetching menu items for category id: {}", categoryId);
-        return menuItemRepository.findByCategoryIdAndAvailableTrue(categoryId).stream()
-                .map(this::convertToMenuItemResponse)
-                .collect(Collectors.toList());
+        return catalog().getAvailableItemsByCategory(categoryId);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public MenuItemResponse getMenuItemById(Long id) {
         logger.info("Fetching menu item by id: {}", id);
-        MenuItem menuItem = menuItemRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Menu item not found with id: " + id));
-        return convertToMenuItemResponse(menuItem);
+        MenuItemResponse menuItem = catalog().findItem(id);
+        if (menuItem == null) {
+            throw new ResourceNotFoundException("Menu item not found with id: " + id);
+        }
+        return menuItem;
     }
 
     public MenuItemResponse createMenuItem(MenuItem menuItem) {
@@ -135,6 +164,7 @@ public class MenuService {
         }
 
         MenuItem savedMenuItem = menuItemRepository.save(menuItem);
+        eventPublisher.publishEvent(new MenuChangedEvent("menu item created"));
         logger.info("Menu item created successfully with id: {}", savedMenuItem.getId());
         return convertToMenuItemResponse(savedMenuItem);
     }
@@ -165,6 +195,7 @@ public class MenuService {
         menuItem.setModifiers(menuItemDetails.getModifiers());
 
         MenuItem updatedMenuItem = menuItemRepository.save(menuItem);
+        eventPublisher.publishEvent(new MenuChangedEvent("menu item updated"));
         logger.info("Menu item updated successfully with id: {}", id);
         return convertToMenuItemResponse(updatedMenuItem);
     }
@@ -176,31 +207,67 @@ public class MenuService {
                 .orElseThrow(() -> new ResourceNotFoundException("Menu item not found with id: " + id));
 
         menuItemRepository.delete(menuItem);
+        eventPublisher.publishEvent(new MenuChangedEvent("menu item deleted"));
         logger.info("Menu item deleted successfully with id: {}", id);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<MenuItemResponse> searchMenuItems(String query, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
         logger.info("Searching menu items with query: {}, category: {}, price range: {}-{}",
                 query, categoryId, minPrice, maxPrice);
 
-        return menuItemRepository.findWithFilters(categoryId, true, minPrice, maxPrice, query).stream()
-                .map(this::convertToMenuItemResponse)
-                .collect(Collectors.toList());
+        return catalog().getSearchIndex().search(query, categoryId, minPrice, maxPrice);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public MenuFacetsResponse getMenuFacets(List<Long> categoryIds, List<Modifier.ModifierType> modifierTypes,
+                                            List<String> priceBuckets, boolean includeItems) {
+        logger.debug("Fetching menu facets - categories: {}, modifier types: {}, price buckets: {}",
+                categoryIds, modifierTypes, priceBuckets);
+
+        MenuCatalog catalog = catalog();
+        MenuFacetIndex.Result result = catalog.getFacetIndex()
+                .query(new MenuFacetIndex.Query(categoryIds, modifierTypes, priceBuckets));
+
+        MenuFacetsResponse response = new MenuFacetsResponse();
+        response.setCatalogVersion(catalog.getVersion());
+        response.setTotalItems(result.getItems().size());
+        response.setItems(includeItems ? result.getItems() : List.of());
+
+        List<FacetCountResponse> categories = new ArrayList<>();
+        result.getCategoryCounts().forEach((id, count) -> {
+            CategoryResponse category = catalog.findCategory(id);
+            categories.add(new FacetCountResponse(String.valueOf(id), category != null ? category.getName() : null,
+                    count, categoryIds != null && categoryIds.contains(id)));
+        });
+        response.setCategories(categories);
+
+        List<FacetCountResponse> types = new ArrayList<>();
+        result.getModifierTypeCounts().forEach((type, count) ->
+                types.add(new FacetCountResponse(type.name(), type.name(), count,
+                        modifierTypes != null && modifierTypes.contains(type))));
+        response.setModifierTypes(types);
+
+        List<FacetCountResponse> buckets = new ArrayList<>();
+        result.getPriceBucketCounts().forEach((bucket, count) ->
+                buckets.add(new FacetCountResponse(bucket, bucket, count,
+                        priceBuckets != null && priceBuckets.contains(bucket))));
+        response.setPriceBuckets(buckets);
+
+        return response;
     }
 
     // Modifier Methods
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<ModifierResponse> getAllModifiers() {
         logger.info("Fetching all available modifiers");
-        return modifierRepository.findByAvailableTrue().stream()
-                .map(this::convertToModifierResponse)
-                .collect(Collectors.toList());
+        return catalog().getAvailableModifiers();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<ModifierResponse> getModifiersByType(Modifier.ModifierType type) {
         logger.info("Fetching modifiers by type: {}", type);
-        return modifierRepository.findByTypeAndAvailableTrue(type).stream()
-                .map(this::convertToModifierResponse)
-                .collect(Collectors.toList());
+        return catalog().getAvailableModifiersByType(type);
     }
 
     public ModifierResponse createModifier(Modifier modifier) {
@@ -211,140 +278,88 @@ public class MenuService {
         }
 
         Modifier savedModifier = modifierRepository.save(modifier);
+        eventPublisher.publishEvent(new MenuChangedEvent("modifier created"));
         logger.info("Modifier created successfully with id: {}", savedModifier.getId());
         return convertToModifierResponse(savedModifier);
     }
 
-    // ==================== MENU IMPORT ====================
+    // ==================== DELTA SYNC ====================
 
     /**
-     * 📥 IMPORT MENU ITEMS FROM FRONTEND
-     * ✅ One-time admin-only operation
-     * ✅ Creates missing categories automatically
-     * ✅ Skips duplicate items (by name + category)
-     * ✅ Backend generates all IDs
-     * ✅ Safe and idempotent
+     * Normalises a client version to the logged version its delta starts from,
+     * or returns null when the client needs a full snapshot.
      */
-    public MenuImportSummary importMenuItems(List<MenuItemImportRequest> importRequests) {
-        logger.info("Starting menu import for {} items", importRequests.size());
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Long getDeltaBaseVersion(Long since) {
+        MenuCatalog catalog = catalog();
+        return isDeltaVersion(catalog, since) ? catalog.getChangeLog().baseVersionFor(since) : null;
+    }
 
-        if (importRequests == null || importRequests.isEmpty()) {
-            logger.warn("No menu items provided for import");
-            return MenuImportSummary.empty();
+    /**
+     * Returns everything that changed after the client's catalog version, read from the given
+     * catalog snapshot.
+     * Falls back to a full snapshot when the client has no version, is ahead of this
+     * server, or is older than the compacted change log.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public MenuChangesResponse getChangesSince(MenuCatalog catalog, Long since) {
+        logger.info("Fetching menu changes since version: {} (current: {})", since, catalog.getVersion());
+
+        MenuChangesResponse response = new MenuChangesResponse();
+        response.setVersion(catalog.getVersion());
+        response.setSince(since);
+
+        if (!isDeltaVersion(catalog, since)) {
+            response.setFullSnapshot(true);
+            response.setCategories(new ArrayList<>(catalog.getCategoriesById().values()));
+            response.setItems(new ArrayList<>(catalog.getItemsById().values()));
+            response.setModifiers(new ArrayList<>(catalog.getModifiersById().values()));
+            response.setDeletedCategoryIds(List.of());
+            response.setDeletedItemIds(List.of());
+            response.setDeletedModifierIds(List.of());
+            return response;
         }
 
-        long itemsCreated = 0;
-        long itemsSkipped = 0;
-        long categoriesCreated = 0;
-
-        for (MenuItemImportRequest request : importRequests) {
-            try {
-                // Step 1: Get or create category
-                Category category = getOrCreateCategory(request.getCategory());
-                if (category.getId() == null) {
-                    categoriesCreated++;
-                }
-
-                // Step 2: Check if item already exists (by name + category)
-                List<MenuItem> existingItems = menuItemRepository.findByCategoryId(category.getId());
-                boolean itemExists = existingItems.stream()
-                        .anyMatch(item -> item.getName().equalsIgnoreCase(request.getName()));
-
-                if (itemExists) {
-                    logger.info("Skipping duplicate item: {} in category: {}", 
-                            request.getName(), request.getCategory());
-                    itemsSkipped++;
-                    continue;
-                }
-
-                // Step 3: Create new menu item (NO ID from frontend)
-                MenuItem menuItem = new MenuItem();
-                menuItem.setName(request.getName());
-                menuItem.setDescription(request.getDescription());
-                menuItem.setPrice(request.getPrice());
-                menuItem.setImageUrl(request.getImageUrl());
-                menuItem.setCategory(category);
-                menuItem.setAvailable(request.getAvailable() != null ? request.getAvailable() : true);
-                menuItem.setPreparationTime(request.getPreparationTime() != null ? request.getPreparationTime() : 10);
-
-                menuItemRepository.save(menuItem);
-                itemsCreated++;
-                logger.info("Created menu item: {} with ID: {}", request.getName(), menuItem.getId());
-
-            } catch (Exception e) {
-                logger.error("Error importing item: {}", request.getName(), e);
-                // Continue with next item instead of failing entire import
+        // An entity changed several times is sent once, in its current state
+        Set<Long> categoryIds = new LinkedHashSet<>();
+        Set<Long> itemIds = new LinkedHashSet<>();
+        Set<Long> modifierIds = new LinkedHashSet<>();
+        for (MenuChange change : catalog.getChangeLog().changesSince(since)) {
+            switch (change.getEntityType()) {
+                case CATEGORY -> categoryIds.add(change.getEntityId());
+                case MENU_ITEM -> itemIds.add(change.getEntityId());
+                case MODIFIER -> modifierIds.add(change.getEntityId());
             }
         }
 
-        logger.info("Menu import completed: {} created, {} skipped, {} categories created",
-                itemsCreated, itemsSkipped, categoriesCreated);
+        response.setFullSnapshot(false);
+        response.setCategories(categoryIds.stream().map(catalog::findCategory).filter(c -> c != null).collect(Collectors.toList()));
+        response.setDeletedCategoryIds(categoryIds.stream().filter(id -> catalog.findCategory(id) == null).collect(Collectors.toList()));
+        response.setItems(itemIds.stream().map(catalog::findItem).filter(i -> i != null).collect(Collectors.toList()));
+        response.setDeletedItemIds(itemIds.stream().filter(id -> catalog.findItem(id) == null).collect(Collectors.toList()));
+        response.setModifiers(modifierIds.stream().map(catalog::findModifier).filter(m -> m != null).collect(Collectors.toList()));
+        response.setDeletedModifierIds(modifierIds.stream().filter(id -> catalog.findModifier(id) == null).collect(Collectors.toList()));
+        return response;
+    }
 
-        return MenuImportSummary.success(
-                (long) importRequests.size(),
-                itemsCreated,
-                itemsSkipped,
-                categoriesCreated
-        );
+    private MenuCatalog catalog() {
+        return menuCatalogService.getCatalog();
     }
 
-    /**
-     * 🔧 GET OR CREATE CATEGORY
-     * Helper method that finds existing category or creates new one
-     */
-    private Category getOrCreateCategory(String categoryName) {
-        logger.debug("Looking up category: {}", categoryName);
-
-        // Check if category already exists
-        return categoryRepository.findByName(categoryName)
-                .orElseGet(() -> {
-                    logger.info("Category not found, creating new: {}", categoryName);
-                    Category newCategory = new Category();
-                    newCategory.setName(categoryName);
-                    newCategory.setActive(true);
-                    newCategory.setDisplayOrder(0);
-                    return categoryRepository.save(newCategory);
-                });
+    private static boolean isDeltaVersion(MenuCatalog catalog, Long since) {
+        return since != null && since <= catalog.getVersion() && since >= catalog.getChangeLog().getFloorVersion();
     }
 
     // Response Conversion Methods
     private CategoryResponse convertToCategoryResponse(Category category) {
-        CategoryResponse response = new CategoryResponse();
-        response.setId(category.getId());
-        response.setName(category.getName());
-        response.setDescription(category.getDescription());
-        response.setImageUrl(category.getImageUrl());
-        response.setDisplayOrder(category.getDisplayOrder());
-        response.setActive(category.getActive());
-        response.setCreatedAt(category.getCreatedAt());
-        return response;
+        return MenuResponses.toCategoryResponse(category);
     }
 
     private MenuItemResponse convertToMenuItemResponse(MenuItem menuItem) {
-        MenuItemResponse response = new MenuItemResponse();
-        response.setId(menuItem.getId());
-        response.setName(menuItem.getName());
-        response.setDescription(menuItem.getDescription());
-        response.setPrice(menuItem.getPrice());
-        response.setImageUrl(menuItem.getImageUrl());
-        response.setCategory(convertToCategoryResponse(menuItem.getCategory()));
-        response.setAvailable(menuItem.getAvailable());
-        response.setPreparationTime(menuItem.getPreparationTime());
-        response.setCreatedAt(menuItem.getCreatedAt());
-        response.setModifiers(menuItem.getModifiers().stream()
-                .map(this::convertToModifierResponse)
-                .collect(Collectors.toList()));
-        return response;
+        return MenuResponses.toMenuItemResponse(menuItem);
     }
 
     private ModifierResponse convertToModifierResponse(Modifier modifier) {
-        ModifierResponse response = new ModifierResponse();
-        response.setId(modifier.getId());
-        response.setName(modifier.getName());
-        response.setType(modifier.getType());
-        response.setPriceAdjustment(modifier.getPriceAdjustment());
-        response.setAvailable(modifier.getAvailable());
-        response.setCreatedAt(modifier.getCreatedAt());
-        return response;
+        return MenuResponses.toModifierResponse(modifier);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,164 @@
+package com.coffeehub.service;
+
+import com.coffeehub.dto.response.CategoryResponse;
+import com.coffeehub.dto.response.MenuItemResponse;
+import com.coffeehub.dto.response.MenuSuggestionResponse;
+import com.coffeehub.entity.Order;
+import com.coffeehub.repository.OrderItemRepository;
+import com.coffeehub.service.catalog.MenuCatalog;
+import com.coffeehub.service.catalog.MenuChange;
+import com.coffeehub.service.catalog.MenuSuggestTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Type-ahead suggestions for menu item and category names.
+ * The trie follows the catalog lazily: when a request sees a newer catalog version, only
+ * entries whose name or popularity changed are removed and re-inserted. Popularity is the
+ * quantity sold per item (categories sum their items) and is refreshed on a schedule.
+ */
+@Service
+public class MenuSuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuSuggestService.class);
+
+    @Autowired
+    private MenuCatalogService menuCatalogService;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Value("${app.menu.suggest.top-k:10}")
+    private int topK;
+
+    private volatile State state;
+
+    private static final class State {
+        final long catalogVersion;
+        final Map<Long, Long> popularity;
+        final Map<String, MenuSuggestTrie.Entry> entries;
+        final MenuSuggestTrie trie;
+
+        State(long catalogVersion, Map<Long, Long> popularity, Map<String, MenuSuggestTrie.Entry> entries,
+              MenuSuggestTrie trie) {
+            this.catalogVersion = catalogVersion;
+            this.popularity = popularity;
+            this.entries = entries;
+            this.trie = trie;
+        }
+    }
+
+    public List<MenuSuggestionResponse> suggest(String prefix, int limit) {
+        String normalized = MenuSuggestTrie.normalizePrefix(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        MenuCatalog catalog = menuCatalogService.getCatalog();
+        State current = state;
+        if (current == null || current.catalogVersion != catalog.getVersion()) {
+            current = sync(catalog, null);
+        }
+
+        return current.trie.suggest(normalized, limit).stream()
+                .map(MenuSuggestService::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(initialDelayString = "${app.menu.suggest.popularity-refresh-ms:300000}",
+            fixedDelayString = "${app.menu.suggest.popularity-refresh-ms:300000}")
+    public void refreshPopularity() {
+        try {
+            sync(menuCatalogService.getCatalog(), loadPopularity());
+        } catch (Exception e) {
+            logger.error("Failed to refresh menu suggestion popularity", e);
+        }
+    }
+
+    private synchronized State sync(MenuCatalog catalog, Map<Long, Long> popularity) {
+        State current = state;
+        if (popularity == null) {
+            if (current != null && current.catalogVersion == catalog.getVersion()) {
+                return current;
+            }
+            popularity = current != null ? current.popularity : loadPopularity();
+        }
+
+        Map<String, MenuSuggestTrie.Entry> entries = buildEntries(catalog, popularity);
+        Map<String, MenuSuggestTrie.Entry> previous = current != null ? current.entries : Map.of();
+        MenuSuggestTrie trie = current != null ? current.trie : MenuSuggestTrie.empty(topK);
+
+        int changed = 0;
+        for (Map.Entry<String, MenuSuggestTrie.Entry> old : previous.entrySet()) {
+            MenuSuggestTrie.Entry replacement = entries.get(old.getKey());
+            if (replacement == null || !replacement.sameContent(old.getValue())) {
+                for (String key : MenuSuggestTrie.keysFor(old.getValue().getName())) {
+                    trie = trie.remove(key, old.getValue());
+                }
+                changed++;
+            }
+        }
+        for (Map.Entry<String, MenuSuggestTrie.Entry> next : entries.entrySet()) {
+            MenuSuggestTrie.Entry old = previous.get(next.getKey());
+            if (old == null || !old.sameContent(next.getValue())) {
+                for (String key : MenuSuggestTrie.keysFor(next.getValue().getName())) {
+                    trie = trie.insert(key, next.getValue());
+                }
+                changed++;
+            }
+        }
+
+        State updated = new State(catalog.getVersion(), popularity, entries, trie);
+        state = updated;
+        logger.debug("Menu suggestions synced to catalog version {}: {} entries changed, {} keys",
+                catalog.getVersion(), changed, trie.getKeyCount());
+        return updated;
+    }
+
+    private Map<Long, Long> loadPopularity() {
+        Map<Long, Long> popularity = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumQuantityByMenuItem(Order.OrderStatus.CANCELLED)) {
+            popularity.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return popularity;
+    }
+
+    private static Map<String, MenuSuggestTrie.Entry> buildEntries(MenuCatalog catalog, Map<Long, Long> popularity) {
+        Map<String, MenuSuggestTrie.Entry> entries = new LinkedHashMap<>();
+        Map<Long, Long> categoryPopularity = new HashMap<>();
+
+        for (MenuItemResponse item : catalog.getAvailableItems()) {
+            long sold = popularity.getOrDefault(item.getId(), 0L);
+            Long categoryId = item.getCategory().getId();
+            categoryPopularity.merge(categoryId, sold, Long::sum);
+            entries.put("I" + item.getId(), new MenuSuggestTrie.Entry(
+                    MenuChange.EntityType.MENU_ITEM, item.getId(), item.getName(), categoryId, sold));
+        }
+        for (CategoryResponse category : catalog.getActiveCategories()) {
+            entries.put("C" + category.getId(), new MenuSuggestTrie.Entry(
+                    MenuChange.EntityType.CATEGORY, category.getId(), category.getName(), category.getId(),
+                    categoryPopularity.getOrDefault(category.getId(), 0L)));
+        }
+        return entries;
+    }
+
+    private static MenuSuggestionResponse toResponse(MenuSuggestTrie.Entry entry) {
+        MenuSuggestionResponse response = new MenuSuggestionResponse();
+        response.setType(entry.getType());
+        response.setId(entry.getId());
+        response.setName(entry.getName());
+        response.setCategoryId(entry.getCategoryId());
+        response.setPopularity(entry.getWeight());
+        return response;
+    }
+}
@@ -0,0 +1,72 @@
+package com.coffeehub.service;
+
+import com.coffeehub.repository.OrderRepository;
+import com.coffeehub.service.order.OrderIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numbers new orders before they are inserted: a time-ordered 64-bit id from
+ * {@link OrderIdGenerator}, and a short ticket number that restarts at 1 every day for the
+ * kitchen screens and the pickup counter.
+ * <p>
+ * Ticket numbers are counted in memory. The database is only asked for the day's highest
+ * ticket when the day changes (or on the first order after a restart), so they are only
+ * unique while a single node takes orders: two nodes would each count on from the same
+ * maximum and hand out the same numbers. Order ids stay unique across nodes as long as each
+ * node has its own {@code app.order.node-id}.
+ */
+@Service
+public class OrderNumberService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderNumberService.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${app.order.node-id:0}")
+    private long nodeId;
+
+    private OrderIdGenerator idGenerator;
+
+    // (epoch day << 32) | last ticket issued that day
+    private final AtomicLong ticketState = new AtomicLong(-1);
+
+    @PostConstruct
+    void init() {
+        idGenerator = new OrderIdGenerator(nodeId);
+        logger.info("Order numbering started for node {}", nodeId);
+    }
+
+    public long nextOrderId() {
+        return idGenerator.nextId();
+    }
+
+    public int nextTicketNumber() {
+        long today = LocalDate.now().toEpochDay();
+        while (true) {
+            long state = ticketState.get();
+            long next;
+            if (state >= 0 && state >>> 32 == today) {
+                next = state + 1;
+            } else {
+                next = (today << 32) | (lastTicketOn(today) + 1);
+            }
+            if (ticketState.compareAndSet(state, next)) {
+                return (int) next;
+            }
+        }
+    }
+
+    private long lastTicketOn(long epochDay) {
+        Integer last = orderRepository.findMaxTicketNumberSince(LocalDate.ofEpochDay(epochDay).atStartOfDay());
+        return last != null ? last : 0;
+    }
+}
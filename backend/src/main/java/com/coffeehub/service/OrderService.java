@@ -2,6 +2,7 @@ package com.coffeehub.service;
 
 import com.coffeehub.dto.request.CartItemRequest;
 import com.coffeehub.dto.request.OrderRequest;
+import com.coffeehub.dto.response.KitchenBoardResponse;
 import com.coffeehub.dto.response.OrderResponse;
 import com.coffeehub.dto.response.OrderStatusHistoryResponse;
 import com.coffeehub.dto.response.UserResponse;
@@ -9,17 +10,27 @@ import com.coffeehub.entity.*;
 import com.coffeehub.exception.ResourceNotFoundException;
 import com.coffeehub.exception.ValidationException;
 import com.coffeehub.repository.*;
+import com.coffeehub.service.cart.CartView;
+import com.coffeehub.service.order.KitchenOrderChangedEvent;
+import com.coffeehub.service.pricing.Money;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -46,6 +57,18 @@ public class OrderService {
     @Autowired
     private CartService cartService;
 
+    @Autowired
+    private OrderNumberService orderNumberService;
+
+    @Autowired
+    private KitchenBoard kitchenBoard;
+
+    @Autowired
+    private ChefScheduler chefScheduler;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     private MenuItemRepository menuItemRepository;
 
@@ -55,6 +78,15 @@ public class OrderService {
     @Autowired
     private WebSocketService webSocketService;
 
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private CartQuoteService cartQuoteService;
+
+    @Autowired
+    private MenuCatalogService menuCatalogService;
+
     public OrderResponse createOrder(OrderRequest orderRequest, Long userId) {
         logger.info("Creating new order for user: {}", userId);
 
@@ -69,28 +101,53 @@ public class OrderService {
             }
         }
 
-        // Generate unique order ID
-        String orderId = generateOrderId();
-
         Order order = new Order();
+        order.setId(orderNumberService.nextOrderId());
         order.setUser(user);
         order.setTable(table);
         order.setOrderType(orderRequest.getOrderType());
         order.setStatus(Order.OrderStatus.PENDING);
-        order.setTotalAmount(orderRequest.getTotalAmount());
         order.setSpecialInstructions(orderRequest.getSpecialInstructions());
         order.setPaymentMethod(orderRequest.getPaymentMethod());
         order.setPaymentStatus(Order.PaymentStatus.PENDING);
         order.setStripePaymentIntentId(orderRequest.getStripePaymentIntentId());
 
-        // Create order items from request
-        if (orderRequest.getItems() != null) {
+        // Revalidate every line against the menu in one pass, then load the entities in two queries
+        long totalCents = 0;
+        if (orderRequest.getItems() != null && !orderRequest.getItems().isEmpty()) {
+            cartQuoteService.validateOrderLines(orderRequest.getItems(), menuCatalogService.getCatalog());
+
+            Set<Long> menuItemIds = new HashSet<>();
+            Set<Long> modifierIds = new HashSet<>();
+            for (CartItemRequest itemRequest : orderRequest.getItems()) {
+                menuItemIds.add(itemRequest.getMenuItemId());
+                if (itemRequest.getModifierIds() != null) {
+                    modifierIds.addAll(itemRequest.getModifierIds());
+                }
+            }
+            Map<Long, MenuItem> menuItems = menuItemRepository.findAllById(menuItemIds).stream()
+                    .collect(Collectors.toMap(MenuItem::getId, menuItem -> menuItem));
+            Map<Long, Modifier> modifiers = modifierIds.isEmpty() ? Map.of()
+                    : modifierRepository.findAllById(modifierIds).stream()
+                    .collect(Collectors.toMap(Modifier::getId, modifier -> modifier));
+
             for (CartItemRequest itemRequest : orderRequest.getItems()) {
-                OrderItem orderItem = createOrderItem(order, itemRequest);
+                OrderItem orderItem = createOrderItem(order, itemRequest, menuItems, modifiers);
                 order.getOrderItems().add(orderItem);
+                totalCents = Math.addExact(totalCents, pricingEngine.orderLineCents(orderItem));
             }
         }
 
+        // The total is always computed here; a client total that disagrees means it priced a stale menu
+        BigDecimal totalAmount = Money.fromCents(totalCents);
+        if (orderRequest.getTotalAmount() != null && Money.toCents(orderRequest.getTotalAmount()) != totalCents) {
+            throw new ValidationException("Order total " + orderRequest.getTotalAmount()
+                    + " does not match the current menu total " + totalAmount);
+        }
+        order.setTotalAmount(totalAmount);
+        // Taken only once the order is valid, so rejected orders leave no gaps in the day's tickets
+        order.setTicketNumber(orderNumberService.nextTicketNumber());
+
         // Add initial status history
         OrderStatusHistory statusHistory = new OrderStatusHistory();
         statusHistory.setOrder(order);
@@ -100,7 +157,7 @@ public class OrderService {
         order.getStatusHistory().add(statusHistory);
 
         Order savedOrder = orderRepository.save(order);
-        logger.info("Order created successfully with id: {}", orderId);
+        logger.info("Order created successfully with id: {}, ticket: {}", savedOrder.getId(), savedOrder.getTicketNumber());
 
         // Clear user's cart after successful order creation
         clearUserCart(userId, orderRequest.getTableId());
@@ -108,10 +165,10 @@ public class OrderService {
         // Notify via WebSocket
         webSocketService.notifyOrderUpdate(savedOrder, "New order created");
 
-        return convertToOrderResponse(savedOrder);
+        return publishChange(savedOrder);
     }
 
-    public OrderResponse getOrderById(String orderId) {
+    public OrderResponse getOrderById(Long orderId) {
         logger.info("Fetching order by id: {}", orderId);
 
         Order order = orderRepository.findById(orderId)
@@ -141,9 +198,24 @@ public class OrderService {
     public List<OrderResponse> getActiveKitchenOrders() {
         logger.info("Fetching active kitchen orders");
 
-        return orderRepository.findActiveKitchenOrders().stream()
+        return getKitchenBoard().getOrders();
+    }
+
+    @Transactional(readOnly = true)
+    public KitchenBoardResponse getKitchenBoard() {
+        if (!kitchenBoard.isLoaded()) {
+            loadKitchenBoard();
+        }
+        return kitchenBoard.snapshot();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadKitchenBoard() {
+        LocalDateTime readAt = LocalDateTime.now();
+        kitchenBoard.load(orderRepository.findActiveKitchenOrders().stream()
                 .map(this::convertToOrderResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), readAt);
     }
 
     public List<OrderResponse> getActiveDeliveryOrders() {
@@ -154,7 +226,7 @@ public class OrderService {
                 .collect(Collectors.toList());
     }
 
-    public OrderResponse updateOrderStatus(String orderId, Order.OrderStatus newStatus, Long changedByUserId, String notes) {
+    public OrderResponse updateOrderStatus(Long orderId, Order.OrderStatus newStatus, Long changedByUserId, String notes) {
         logger.info("Updating order status - order: {}, new status: {}, changed by: {}", orderId, newStatus, changedByUserId);
 
         Order order = orderRepository.findById(orderId)
@@ -169,6 +241,7 @@ public class OrderService {
 
         // Update assigned staff based on status
         updateAssignedStaff(order, newStatus, changedBy);
+        scheduleChef(order, newStatus);
 
         Order updatedOrder = orderRepository.save(order);
 
@@ -180,10 +253,10 @@ public class OrderService {
         // Notify via WebSocket
         webSocketService.notifyOrderUpdate(updatedOrder, "Order status updated to: " + newStatus);
 
-        return convertToOrderResponse(updatedOrder);
+        return publishChange(updatedOrder);
     }
 
-    public OrderResponse assignOrderToChef(String orderId, Long chefId) {
+    public OrderResponse assignOrderToChef(Long orderId, Long chefId) {
         logger.info("Assigning order to chef - order: {}, chef: {}", orderId, chefId);
 
         Order order = orderRepository.findById(orderId)
@@ -195,6 +268,7 @@ public class OrderService {
         }
 
         order.setAssignedChef(chef);
+        applySchedule(order, chefScheduler.assigned(order, chef));
         Order updatedOrder = orderRepository.save(order);
 
         logger.info("Order assigned to chef successfully - order: {}, chef: {}", orderId, chefId);
@@ -202,10 +276,10 @@ public class OrderService {
         // Notify via WebSocket
         webSocketService.notifyOrderUpdate(updatedOrder, "Order assigned to chef: " + chef.getFirstName());
 
-        return convertToOrderResponse(updatedOrder);
+        return publishChange(updatedOrder);
     }
 
-    public OrderResponse assignOrderToWaiter(String orderId, Long waiterId) {
+    public OrderResponse assignOrderToWaiter(Long orderId, Long waiterId) {
         logger.info("Assigning order to waiter - order: {}, waiter: {}", orderId, waiterId);
 
         Order order = orderRepository.findById(orderId)
@@ -224,10 +298,10 @@ public class OrderService {
         // Notify via WebSocket
         webSocketService.notifyOrderUpdate(updatedOrder, "Order assigned to waiter: " + waiter.getFirstName());
 
-        return convertToOrderResponse(updatedOrder);
+        return publishChange(updatedOrder);
     }
 
-    public OrderResponse updatePaymentStatus(String orderId, Order.PaymentStatus paymentStatus, String stripePaymentIntentId) {
+    public OrderResponse updatePaymentStatus(Long orderId, Order.PaymentStatus paymentStatus, String stripePaymentIntentId) {
         logger.info("Updating payment status - order: {}, status: {}, stripeIntent: {}",
                 orderId, paymentStatus, stripePaymentIntentId);
 
@@ -243,6 +317,7 @@ public class OrderService {
         if (paymentStatus == Order.PaymentStatus.PAID && order.getStatus() == Order.OrderStatus.PENDING) {
             order.setStatus(Order.OrderStatus.CONFIRMED);
             addStatusHistory(order, Order.OrderStatus.CONFIRMED, order.getUser(), "Payment confirmed");
+            scheduleChef(order, Order.OrderStatus.CONFIRMED);
         }
 
         Order updatedOrder = orderRepository.save(order);
@@ -252,10 +327,10 @@ public class OrderService {
         // Notify via WebSocket
         webSocketService.notifyOrderUpdate(updatedOrder, "Payment status updated to: " + paymentStatus);
 
-        return convertToOrderResponse(updatedOrder);
+        return publishChange(updatedOrder);
     }
 
-    public void cancelOrder(String orderId, Long userId, String reason) {
+    public void cancelOrder(Long orderId, Long userId, String reason) {
         logger.info("Cancelling order - order: {}, user: {}, reason: {}", orderId, userId, reason);
 
         Order order = orderRepository.findById(orderId)
@@ -270,6 +345,7 @@ public class OrderService {
 
         order.setStatus(Order.OrderStatus.CANCELLED);
         order.setPaymentStatus(Order.PaymentStatus.REFUNDED);
+        scheduleChef(order, Order.OrderStatus.CANCELLED);
 
         Order updatedOrder = orderRepository.save(order);
 
@@ -280,16 +356,24 @@ public class OrderService {
 
         // Notify via WebSocket
         webSocketService.notifyOrderUpdate(updatedOrder, "Order cancelled: " + reason);
+        publishChange(updatedOrder);
     }
 
     // Private helper methods
-    private String generateOrderId() {
-        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    private OrderResponse publishChange(Order order) {
+        // Flushed first so the published updatedAt is the one written; the board orders changes by it
+        orderRepository.flush();
+        OrderResponse response = convertToOrderResponse(order);
+        eventPublisher.publishEvent(new KitchenOrderChangedEvent(response));
+        return response;
     }
 
-    private OrderItem createOrderItem(Order order, CartItemRequest itemRequest) {
-        MenuItem menuItem = menuItemRepository.findById(itemRequest.getMenuItemId())
-                .orElseThrow(() -> new ResourceNotFoundException("Menu item not found with id: " + itemRequest.getMenuItemId()));
+    private OrderItem createOrderItem(Order order, CartItemRequest itemRequest, Map<Long, MenuItem> menuItems,
+                                      Map<Long, Modifier> modifiers) {
+        MenuItem menuItem = menuItems.get(itemRequest.getMenuItemId());
+        if (menuItem == null) {
+            throw new ResourceNotFoundException("Menu item not found with id: " + itemRequest.getMenuItemId());
+        }
 
         OrderItem orderItem = new OrderItem();
         orderItem.setOrder(order);
@@ -302,8 +386,10 @@ public class OrderService {
         // Add modifiers
         if (itemRequest.getModifierIds() != null) {
             for (Long modifierId : itemRequest.getModifierIds()) {
-                Modifier modifier = modifierRepository.findById(modifierId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Modifier not found with id: " + modifierId));
+                Modifier modifier = modifiers.get(modifierId);
+                if (modifier == null) {
+                    throw new ResourceNotFoundException("Modifier not found with id: " + modifierId);
+                }
 
                 OrderItemModifier orderItemModifier = new OrderItemModifier();
                 orderItemModifier.setOrderItem(orderItem);
@@ -347,6 +433,50 @@ public class OrderService {
         }
     }
 
+    private void scheduleChef(Order order, Order.OrderStatus newStatus) {
+        ChefScheduler.Changes changes;
+        switch (newStatus) {
+            case CONFIRMED:
+                changes = chefScheduler.confirmed(order);
+                break;
+            case PREPARING:
+                changes = chefScheduler.started(order);
+                break;
+            default:
+                changes = chefScheduler.finished(order);
+                break;
+        }
+        applySchedule(order, changes);
+    }
+
+    // Writes what the scheduler changed: chefs and estimates on the orders, load counts on the chefs
+    private void applySchedule(Order order, ChefScheduler.Changes changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Set<Long> otherIds = new HashSet<>(changes.getAssignments().keySet());
+        otherIds.addAll(changes.getEstimates().keySet());
+        otherIds.remove(order.getId());
+
+        List<Order> others = otherIds.isEmpty() ? List.of() : orderRepository.findAllById(otherIds);
+        List<Order> affected = new ArrayList<>(others);
+        affected.add(order);
+        for (Order target : affected) {
+            Long chefId = changes.getAssignments().get(target.getId());
+            if (chefId != null) {
+                target.setAssignedChef(userService.findById(chefId));
+            }
+            if (changes.getEstimates().containsKey(target.getId())) {
+                target.setEstimatedReadyAt(changes.getEstimates().get(target.getId()));
+            }
+        }
+        changes.getChefLoads().forEach((chefId, activeOrders) ->
+                userService.findById(chefId).setCurrentActiveOrders(activeOrders));
+
+        // Orders other than the one being changed reach the kitchen board here
+        others.forEach(this::publishChange);
+    }
+
     private void updateAssignedStaff(Order order, Order.OrderStatus newStatus, User changedBy) {
         switch (newStatus) {
             case PREPARING:
@@ -375,7 +505,7 @@ public class OrderService {
 
     private void clearUserCart(Long userId, Long tableId) {
         try {
-            cartService.clearCart(userId, null, tableId);
+            cartService.clearCart(userId, null, tableId, null, CartView.FULL);
         } catch (Exception e) {
             logger.warn("Failed to clear user cart after order creation: {}", e.getMessage());
         }
@@ -384,6 +514,7 @@ public class OrderService {
     private OrderResponse convertToOrderResponse(Order order) {
         OrderResponse response = new OrderResponse();
         response.setId(order.getId());
+        response.setTicketNumber(order.getTicketNumber());
         response.setUser(convertToUserResponse(order.getUser()));
 
         if (order.getTable() != null) {
@@ -405,6 +536,7 @@ public class OrderService {
         if (order.getAssignedWaiter() != null) {
             response.setAssignedWaiter(convertToUserResponse(order.getAssignedWaiter()));
         }
+        response.setEstimatedReadyAt(order.getEstimatedReadyAt());
 
         response.setOrderItems(order.getOrderItems().stream()
                 .map(this::convertToOrderItemResponse)
@@ -447,7 +579,7 @@ public class OrderService {
         response.setModifiers(orderItem.getModifiers().stream()
                 .map(this::convertToOrderItemModifierResponse)
                 .collect(Collectors.toList()));
-        response.setTotalPrice(orderItem.getTotalPrice());
+        response.setTotalPrice(Money.fromCents(pricingEngine.orderLineCents(orderItem)));
         return response;
     }
 
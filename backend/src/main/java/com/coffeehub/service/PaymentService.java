@@ -48,7 +48,7 @@ public class PaymentService {
 
         Stripe.apiKey = stripeSecretKey;
 
-        Order order = orderRepository.findById(String.valueOf(paymentRequest.getOrderId()))
+        Order order = orderRepository.findById(paymentRequest.getOrderId())
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + paymentRequest.getOrderId()));
 
         // Validate amount
@@ -149,7 +149,7 @@ public class PaymentService {
 
         try {
             // Update order payment status
-            orderService.updatePaymentStatus(orderId, Order.PaymentStatus.PAID, paymentIntent.getId());
+            orderService.updatePaymentStatus(Long.valueOf(orderId), Order.PaymentStatus.PAID, paymentIntent.getId());
 
             // Update payment record
             Payment payment = paymentRepository.findByStripePaymentIntentId(paymentIntent.getId())
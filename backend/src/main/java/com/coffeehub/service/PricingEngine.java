@@ -0,0 +1,114 @@
+package com.coffeehub.service;
+
+import com.coffeehub.entity.CartItem;
+import com.coffeehub.entity.Modifier;
+import com.coffeehub.entity.OrderItem;
+import com.coffeehub.entity.OrderItemModifier;
+import com.coffeehub.service.cart.CartLine;
+import com.coffeehub.service.pricing.Money;
+import com.coffeehub.service.pricing.PriceTable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Line and cart totals in {@code long} cents.
+ * Cart lines are priced from the catalog's {@link PriceTable} (current menu price plus
+ * current modifier adjustments, the same amounts an order is charged). Order lines are
+ * priced from the amounts captured on the order. Callers convert to BigDecimal with
+ * {@link Money#fromCents(long)} only when building a response.
+ */
+@Service
+public class PricingEngine {
+
+    @Autowired
+    private MenuCatalogService menuCatalogService;
+
+    /** Prices of the current catalog snapshot; fetch once per request and reuse for every line. */
+    public PriceTable currentPrices() {
+        return menuCatalogService.getCatalog().getPriceTable();
+    }
+
+    /**
+     * Unit price of a cart line. Items or modifiers that are no longer on the menu fall back
+     * to the amounts stored on the line.
+     */
+    public long cartUnitCents(PriceTable prices, CartItem line) {
+        long unit = cartBaseCents(prices, line);
+        List<Modifier> modifiers = line.getModifiers();
+        for (int i = 0, n = modifiers.size(); i < n; i++) {
+            Modifier modifier = modifiers.get(i);
+            long adjustment = prices.modifierCents(modifier.getId());
+            unit += adjustment != PriceTable.MISSING ? adjustment : Money.toCents(modifier.getPriceAdjustment());
+        }
+        return unit;
+    }
+
+    /** Menu price of the line's item, without modifiers. */
+    public long cartBaseCents(PriceTable prices, CartItem line) {
+        long base = prices.itemCents(line.getMenuItem().getId());
+        return base != PriceTable.MISSING ? base : Money.toCents(line.getPrice());
+    }
+
+    public long cartLineCents(PriceTable prices, CartItem line) {
+        return lineCents(cartUnitCents(prices, line), line.getQuantity());
+    }
+
+    public long cartTotalCents(PriceTable prices, List<CartItem> lines) {
+        long total = 0;
+        for (int i = 0, n = lines.size(); i < n; i++) {
+            total = Math.addExact(total, cartLineCents(prices, lines.get(i)));
+        }
+        return total;
+    }
+
+    /**
+     * Unit price of an in-memory cart line. An item no longer on the menu falls back to the
+     * price stored on the line. Cart lines do not store modifier adjustments, so a modifier no
+     * longer on the menu adds nothing. {@link CartQuoteService} flags such a line as invalid,
+     * and checkout rejects it rather than charging this amount.
+     */
+    public long cartUnitCents(PriceTable prices, CartLine line) {
+        long unit = cartBaseCents(prices, line);
+        List<Long> modifierIds = line.getModifierIds();
+        for (int i = 0, n = modifierIds.size(); i < n; i++) {
+            long adjustment = prices.modifierCents(modifierIds.get(i));
+            if (adjustment != PriceTable.MISSING) {
+                unit += adjustment;
+            }
+        }
+        return unit;
+    }
+
+    public long cartBaseCents(PriceTable prices, CartLine line) {
+        long base = prices.itemCents(line.getMenuItemId());
+        return base != PriceTable.MISSING ? base : line.getPriceCents();
+    }
+
+    public long cartLineCents(PriceTable prices, CartLine line) {
+        return lineCents(cartUnitCents(prices, line), line.getQuantity());
+    }
+
+    public long cartLinesTotalCents(PriceTable prices, List<CartLine> lines) {
+        long total = 0;
+        for (int i = 0, n = lines.size(); i < n; i++) {
+            total = Math.addExact(total, cartLineCents(prices, lines.get(i)));
+        }
+        return total;
+    }
+
+    /** Total of an order line from the price and adjustments captured when it was ordered. */
+    public long orderLineCents(OrderItem line) {
+        long unit = Money.toCents(line.getPrice());
+        List<OrderItemModifier> modifiers = line.getModifiers();
+        for (int i = 0, n = modifiers.size(); i < n; i++) {
+            unit += Money.toCents(modifiers.get(i).getPriceAdjustment());
+        }
+        return lineCents(unit, line.getQuantity());
+    }
+
+    public static long lineCents(long unitCents, Integer quantity) {
+        return Math.multiplyExact(unitCents, quantity != null ? quantity : 0);
+    }
+}
@@ -3,9 +3,11 @@ package com.coffeehub.service;
 import com.coffeehub.entity.User;
 import com.coffeehub.exception.ResourceNotFoundException;
 import com.coffeehub.repository.UserRepository;
+import com.coffeehub.service.order.ChefChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -28,6 +30,9 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
@@ -59,6 +64,9 @@ public class UserService implements UserDetailsService {
 
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         User savedUser = userRepository.save(user);
+        if (savedUser.getRole() == User.Role.CHEF) {
+            eventPublisher.publishEvent(new ChefChangedEvent(savedUser.getId()));
+        }
 
         logger.info("User created successfully with id: {}", savedUser.getId());
         return savedUser;
@@ -86,6 +94,9 @@ public class UserService implements UserDetailsService {
         User user = findById(id);
         user.setEnabled(false);
         userRepository.save(user);
+        if (user.getRole() == User.Role.CHEF) {
+            eventPublisher.publishEvent(new ChefChangedEvent(id));
+        }
 
         logger.info("User disabled successfully with id: {}", id);
     }
@@ -114,8 +125,12 @@ public class UserService implements UserDetailsService {
         logger.info("Changing role for user id: {} to {}", userId, newRole);
 
         User user = findById(userId);
+        boolean wasChef = user.getRole() == User.Role.CHEF;
         user.setRole(newRole);
         User updatedUser = userRepository.save(user);
+        if (wasChef || newRole == User.Role.CHEF) {
+            eventPublisher.publishEvent(new ChefChangedEvent(userId));
+        }
 
         logger.info("User role changed successfully for user id: {}", userId);
         return updatedUser;
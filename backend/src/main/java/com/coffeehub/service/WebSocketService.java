@@ -1,6 +1,9 @@
 package com.coffeehub.service;
 
+import com.coffeehub.dto.response.CartResponse;
+import com.coffeehub.dto.websocket.KitchenBoardUpdateMessage;
 import com.coffeehub.dto.websocket.OrderUpdateMessage;
+import com.coffeehub.dto.websocket.TableCartUpdateMessage;
 import com.coffeehub.entity.Order;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +24,7 @@ public class WebSocketService {
 
         OrderUpdateMessage updateMessage = new OrderUpdateMessage();
         updateMessage.setOrderId(String.valueOf(order.getId()));
+        updateMessage.setTicketNumber(order.getTicketNumber());
         updateMessage.setStatus(order.getStatus());
         updateMessage.setMessage(message);
         updateMessage.setTimestamp(System.currentTimeMillis());
@@ -52,6 +56,7 @@ public class WebSocketService {
 
         OrderUpdateMessage updateMessage = new OrderUpdateMessage();
         updateMessage.setOrderId(String.valueOf(order.getId()));
+        updateMessage.setTicketNumber(order.getTicketNumber());
         updateMessage.setStatus(order.getStatus());
         updateMessage.setMessage(message);
         updateMessage.setTimestamp(System.currentTimeMillis());
@@ -64,10 +69,34 @@ public class WebSocketService {
 
         OrderUpdateMessage updateMessage = new OrderUpdateMessage();
         updateMessage.setOrderId(String.valueOf(order.getId()));
+        updateMessage.setTicketNumber(order.getTicketNumber());
         updateMessage.setStatus(order.getStatus());
         updateMessage.setMessage(message);
         updateMessage.setTimestamp(System.currentTimeMillis());
 
         messagingTemplate.convertAndSend("/topic/delivery/orders", updateMessage);
     }
-}
\ No newline at end of file
+
+    /**
+     * Sends a change to a table's shared cart to everyone at the table. The cart is a delta
+     * against the previous version; a guest who sees a version gap refetches with {@code since}.
+     */
+    public void notifyTableCartUpdate(String tableToken, CartResponse cart) {
+        logger.debug("Sending shared cart update for table: {}, version: {}", tableToken, cart.getVersion());
+
+        TableCartUpdateMessage updateMessage = new TableCartUpdateMessage();
+        updateMessage.setTableToken(tableToken);
+        updateMessage.setCart(cart);
+        updateMessage.setTimestamp(System.currentTimeMillis());
+
+        messagingTemplate.convertAndSend("/topic/table/" + tableToken, updateMessage);
+    }
+
+    /** Sends one change to the kitchen board; dashboards apply messages in sequence order. */
+    public void notifyKitchenBoardUpdate(KitchenBoardUpdateMessage message) {
+        logger.debug("Sending kitchen board {} for order: {}, sequence: {}",
+                message.getType(), message.getOrderId(), message.getSequence());
+
+        messagingTemplate.convertAndSend("/topic/kitchen/orders", message);
+    }
+}
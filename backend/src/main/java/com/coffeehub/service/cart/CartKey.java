@@ -0,0 +1,89 @@
+package com.coffeehub.service.cart;
+
+import java.util.Objects;
+
+/**
+ * Identifies a cart: a signed-in user or a guest session token, at a table or without one.
+ * A user id takes precedence over a session token, matching how carts are looked up.
+ * A key with only a table id is the table's shared cart, which every guest at it edits.
+ */
+public final class CartKey {
+
+    private final Long userId;
+    private final String sessionToken;
+    private final Long tableId;
+
+    private CartKey(Long userId, String sessionToken, Long tableId) {
+        this.userId = userId;
+        this.sessionToken = sessionToken;
+        this.tableId = tableId;
+    }
+
+    public static CartKey of(Long userId, String sessionToken, Long tableId) {
+        if (userId != null) {
+            return new CartKey(userId, null, tableId);
+        }
+        if (sessionToken == null || sessionToken.isBlank()) {
+            throw new IllegalArgumentException("Either userId or sessionToken must be provided");
+        }
+        return new CartKey(null, sessionToken, tableId);
+    }
+
+    public static CartKey forUser(Long userId, Long tableId) {
+        return new CartKey(Objects.requireNonNull(userId, "userId"), null, tableId);
+    }
+
+    public static CartKey forSession(String sessionToken, Long tableId) {
+        return new CartKey(null, Objects.requireNonNull(sessionToken, "sessionToken"), tableId);
+    }
+
+    public static CartKey forTable(Long tableId) {
+        return new CartKey(null, null, Objects.requireNonNull(tableId, "tableId"));
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getSessionToken() {
+        return sessionToken;
+    }
+
+    public Long getTableId() {
+        return tableId;
+    }
+
+    public boolean isUserCart() {
+        return userId != null;
+    }
+
+    public boolean isTableCart() {
+        return userId == null && sessionToken == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CartKey other)) {
+            return false;
+        }
+        return Objects.equals(userId, other.userId)
+                && Objects.equals(sessionToken, other.sessionToken)
+                && Objects.equals(tableId, other.tableId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, sessionToken, tableId);
+    }
+
+    @Override
+    public String toString() {
+        if (isTableCart()) {
+            return "shared@table:" + tableId;
+        }
+        return (userId != null ? "user:" + userId : "session:" + sessionToken) + "@table:" + tableId;
+    }
+}
@@ -0,0 +1,144 @@
+package com.coffeehub.service.cart;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One line of an in-memory cart. Guarded by the owning cart's lock.
+ * Lines of a shared table cart record the guest who added them; only that guest changes them.
+ */
+public final class CartLine {
+
+    private final long id;
+    private final long menuItemId;
+    private int quantity;
+    private String specialInstructions;
+    // Menu price when the line was added, kept for items that later leave the catalog
+    private long priceCents;
+    private List<Long> modifierIds;
+    private final LocalDateTime createdAt;
+    // Guest who owns the line in a shared table cart, null in personal carts
+    private final String participant;
+    private final String guestName;
+    // Cart version of the last change to this line, for delta responses
+    private long changedVersion;
+
+    public CartLine(long id, long menuItemId, int quantity, String specialInstructions, long priceCents,
+                    List<Long> modifierIds, LocalDateTime createdAt) {
+        this(id, menuItemId, quantity, specialInstructions, priceCents, modifierIds, createdAt, null, null);
+    }
+
+    public CartLine(long id, long menuItemId, int quantity, String specialInstructions, long priceCents,
+                    List<Long> modifierIds, LocalDateTime createdAt, String participant, String guestName) {
+        this.id = id;
+        this.menuItemId = menuItemId;
+        this.quantity = quantity;
+        this.specialInstructions = specialInstructions;
+        this.priceCents = priceCents;
+        this.modifierIds = List.copyOf(modifierIds);
+        this.createdAt = createdAt;
+        this.participant = participant;
+        this.guestName = guestName;
+    }
+
+    public CartLine copy() {
+        CartLine copy = new CartLine(id, menuItemId, quantity, specialInstructions, priceCents, modifierIds, createdAt,
+                participant, guestName);
+        copy.changedVersion = changedVersion;
+        return copy;
+    }
+
+    /** Whether this line is the same product choice, so adding it again only bumps the quantity. */
+    public boolean sameChoice(long otherMenuItemId, List<Long> otherModifierIds) {
+        return sameChoice(null, otherMenuItemId, otherModifierIds);
+    }
+
+    /** As {@link #sameChoice(long, List)}, but only for lines owned by the given guest. */
+    public boolean sameChoice(String otherParticipant, long otherMenuItemId, List<Long> otherModifierIds) {
+        return Objects.equals(participant, otherParticipant)
+                && menuItemId == otherMenuItemId
+                && modifierIds.size() == otherModifierIds.size()
+                && modifierIds.containsAll(otherModifierIds);
+    }
+
+    /**
+     * Hashable form of the product choice: the menu item id followed by the sorted modifier ids.
+     * Lines with equal keys are the same choice in the sense of {@link #sameChoice(long, List)}.
+     */
+    public List<Long> choiceKey() {
+        List<Long> key = new ArrayList<>(modifierIds.size() + 1);
+        key.add(menuItemId);
+        modifierIds.stream().sorted().forEach(key::add);
+        return key;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getMenuItemId() {
+        return menuItemId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getSpecialInstructions() {
+        return specialInstructions;
+    }
+
+    public void setSpecialInstructions(String specialInstructions) {
+        this.specialInstructions = specialInstructions;
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
+    }
+
+    public List<Long> getModifierIds() {
+        return modifierIds;
+    }
+
+    public void setModifierIds(List<Long> modifierIds) {
+        this.modifierIds = List.copyOf(modifierIds);
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getParticipant() {
+        return participant;
+    }
+
+    public String getGuestName() {
+        return guestName;
+    }
+
+    public long getChangedVersion() {
+        return changedVersion;
+    }
+
+    void setChangedVersion(long changedVersion) {
+        this.changedVersion = changedVersion;
+    }
+
+    static List<CartLine> copyAll(List<CartLine> lines) {
+        List<CartLine> copies = new ArrayList<>(lines.size());
+        for (CartLine line : lines) {
+            copies.add(line.copy());
+        }
+        return copies;
+    }
+}
@@ -0,0 +1,74 @@
+package com.coffeehub.service.cart;
+
+import java.util.Map;
+
+/**
+ * Prices and validity of every line of a cart, computed against one catalog snapshot.
+ * A quote stays good until either the cart or the catalog moves to a new version.
+ */
+public final class CartQuote {
+
+    /** One priced line; {@code issue} says why the line cannot be ordered, or is null. */
+    public static final class LineQuote {
+        private final long baseCents;
+        private final long lineCents;
+        private final String issue;
+
+        public LineQuote(long baseCents, long lineCents, String issue) {
+            this.baseCents = baseCents;
+            this.lineCents = lineCents;
+            this.issue = issue;
+        }
+
+        public long getBaseCents() {
+            return baseCents;
+        }
+
+        public long getLineCents() {
+            return lineCents;
+        }
+
+        public String getIssue() {
+            return issue;
+        }
+
+        public boolean isValid() {
+            return issue == null;
+        }
+    }
+
+    private final long cartVersion;
+    private final long catalogVersion;
+    private final Map<Long, LineQuote> lines;
+    private final long totalCents;
+    private final int invalidLines;
+
+    public CartQuote(long cartVersion, long catalogVersion, Map<Long, LineQuote> lines, long totalCents,
+                     int invalidLines) {
+        this.cartVersion = cartVersion;
+        this.catalogVersion = catalogVersion;
+        this.lines = Map.copyOf(lines);
+        this.totalCents = totalCents;
+        this.invalidLines = invalidLines;
+    }
+
+    public boolean isFor(long cartVersion, long catalogVersion) {
+        return this.cartVersion == cartVersion && this.catalogVersion == catalogVersion;
+    }
+
+    public LineQuote line(long lineId) {
+        return lines.get(lineId);
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public int getInvalidLines() {
+        return invalidLines;
+    }
+
+    public boolean isValid() {
+        return invalidLines == 0;
+    }
+}
@@ -0,0 +1,288 @@
+package com.coffeehub.service.cart;
+
+import com.coffeehub.dto.response.TableResponse;
+import com.coffeehub.dto.response.UserResponse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory cart held by {@link com.coffeehub.service.CartStore}.
+ * All fields are guarded by the store's lock stripe for the cart's key; the store hands
+ * a state to callers only while that lock is held.
+ * <p>
+ * Versions start at the wall-clock millisecond the cart was created or loaded and go up by
+ * one per change, so a version handed out before a restart is never mistaken for a later one.
+ * Each line remembers the version that last changed it, and recent removals are kept, so a
+ * client can be sent just what changed since the version it holds.
+ */
+public final class CartState {
+
+    private static final int MAX_TRACKED_REMOVALS = 128;
+
+    private final CartKey key;
+    private final long id;
+    private final UserResponse user;
+    private final TableResponse table;
+    private final List<CartLine> lines;
+    private final LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Bumped on every mutation; the write-behind flush records the last version it wrote
+    private long version;
+    private long flushedVersion;
+    // Oldest version a delta can be computed from
+    private long deltaFloor;
+    private final Deque<long[]> removals = new ArrayDeque<>();
+    // Guests of a shared table cart, numbered in the order they first added a line
+    private final Map<String, Integer> guestNumbers = new HashMap<>();
+    private boolean persisted;
+    private boolean deleted;
+    // Flushes in a row the database refused for this cart
+    private int rejectedFlushes;
+    // Last computed prices and validity, reused while cart and catalog versions match
+    private CartQuote quote;
+    private long lastAccessMillis;
+
+    public CartState(CartKey key, long id, UserResponse user, TableResponse table, List<CartLine> lines,
+                     LocalDateTime createdAt, LocalDateTime updatedAt, boolean persisted) {
+        this.key = key;
+        this.id = id;
+        this.user = user;
+        this.table = table;
+        this.lines = new ArrayList<>(lines);
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.persisted = persisted;
+        this.lastAccessMillis = System.currentTimeMillis();
+        this.version = lastAccessMillis;
+        this.deltaFloor = version;
+        for (CartLine line : this.lines) {
+            line.setChangedVersion(version);
+            numberGuest(line);
+        }
+    }
+
+    /** Detached copy of the current contents, taken under the lock for the flush to write. */
+    public CartState snapshot() {
+        CartState copy = new CartState(key, id, user, table, CartLine.copyAll(lines), createdAt, updatedAt, persisted);
+        copy.version = version;
+        copy.flushedVersion = flushedVersion;
+        copy.deltaFloor = deltaFloor;
+        copy.deleted = deleted;
+        return copy;
+    }
+
+    public CartLine findLine(long lineId) {
+        for (CartLine line : lines) {
+            if (line.getId() == lineId) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    public CartLine findSameChoice(String participant, long menuItemId, List<Long> modifierIds) {
+        for (CartLine line : lines) {
+            if (line.sameChoice(participant, menuItemId, modifierIds)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    public void addLine(CartLine line) {
+        line.setChangedVersion(version);
+        numberGuest(line);
+        lines.add(line);
+    }
+
+    /** Number of the guest who owns the line, stable for the life of the cart; null for personal lines. */
+    public Integer guestNumber(CartLine line) {
+        return line.getParticipant() != null ? guestNumbers.get(line.getParticipant()) : null;
+    }
+
+    public Integer guestNumber(String participant) {
+        return guestNumbers.get(participant);
+    }
+
+    private void numberGuest(CartLine line) {
+        if (line.getParticipant() != null) {
+            guestNumbers.putIfAbsent(line.getParticipant(), guestNumbers.size() + 1);
+        }
+    }
+
+    /** Records that a line was modified in place by the current change. */
+    public void lineChanged(CartLine line) {
+        line.setChangedVersion(version);
+    }
+
+    public boolean removeLine(long lineId) {
+        boolean removed = lines.removeIf(line -> line.getId() == lineId);
+        if (removed) {
+            recordRemoval(lineId);
+        }
+        return removed;
+    }
+
+    /** Copies of the current lines, for undoing a multi-step change that fails half way. */
+    public List<CartLine> copyLines() {
+        return CartLine.copyAll(lines);
+    }
+
+    public void restoreLines(List<CartLine> saved) {
+        lines.clear();
+        lines.addAll(saved);
+        for (CartLine line : saved) {
+            numberGuest(line);
+        }
+        // Resend restored lines, overriding any removal recorded by the undone change
+        for (CartLine line : lines) {
+            line.setChangedVersion(version);
+        }
+    }
+
+    public void clearLines() {
+        for (CartLine line : lines) {
+            recordRemoval(line.getId());
+        }
+        lines.clear();
+    }
+
+    /** Whether a delta from the given version can be computed, or the client needs the full cart. */
+    public boolean canDiffFrom(long sinceVersion) {
+        return sinceVersion >= deltaFloor && sinceVersion <= version;
+    }
+
+    public List<CartLine> linesChangedSince(long sinceVersion) {
+        List<CartLine> changed = new ArrayList<>();
+        for (CartLine line : lines) {
+            if (line.getChangedVersion() > sinceVersion) {
+                changed.add(line);
+            }
+        }
+        return changed;
+    }
+
+    public List<Long> lineIdsRemovedSince(long sinceVersion) {
+        Set<Long> present = new HashSet<>();
+        for (CartLine line : lines) {
+            present.add(line.getId());
+        }
+        Set<Long> removed = new LinkedHashSet<>();
+        for (long[] removal : removals) {
+            if (removal[1] > sinceVersion && !present.contains(removal[0])) {
+                removed.add(removal[0]);
+            }
+        }
+        return new ArrayList<>(removed);
+    }
+
+    private void recordRemoval(long lineId) {
+        removals.addLast(new long[]{lineId, version});
+        if (removals.size() > MAX_TRACKED_REMOVALS) {
+            // Clients older than the forgotten removal can no longer be diffed
+            deltaFloor = Math.max(deltaFloor, removals.removeFirst()[1]);
+        }
+    }
+
+    public CartKey getKey() {
+        return key;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public UserResponse getUser() {
+        return user;
+    }
+
+    public TableResponse getTable() {
+        return table;
+    }
+
+    public List<CartLine> getLines() {
+        return lines;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public CartQuote getQuote() {
+        return quote;
+    }
+
+    public void setQuote(CartQuote quote) {
+        this.quote = quote;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public boolean isPersisted() {
+        return persisted;
+    }
+
+    /** Whether every mutation has reached the database. */
+    public boolean isClean() {
+        return persisted && flushedVersion == version;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    public void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    public void markChanged() {
+        version++;
+        updatedAt = LocalDateTime.now();
+        touch();
+    }
+
+    /** Puts back the version and change time saved before a mutation that was rejected. */
+    public void revertChange(long previousVersion, LocalDateTime previousUpdatedAt) {
+        version = previousVersion;
+        updatedAt = previousUpdatedAt;
+    }
+
+    public void markDeleted() {
+        markChanged();
+        clearLines();
+        deleted = true;
+    }
+
+    /** Counts a flush the database refused; returns how many in a row it has refused. */
+    public int recordRejectedFlush() {
+        return ++rejectedFlushes;
+    }
+
+    public void markFlushed(long flushed) {
+        persisted = true;
+        rejectedFlushes = 0;
+        if (flushed > flushedVersion) {
+            flushedVersion = flushed;
+        }
+    }
+}
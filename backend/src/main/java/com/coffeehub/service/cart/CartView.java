@@ -0,0 +1,39 @@
+package com.coffeehub.service.cart;
+
+/**
+ * How a cart operation should answer: the full cart, or only what changed since a version
+ * the client already holds.
+ */
+public final class CartView {
+
+    public static final CartView FULL = new CartView(null, null);
+
+    private final Long sinceVersion;
+    private final Long menuVersion;
+
+    private CartView(Long sinceVersion, Long menuVersion) {
+        this.sinceVersion = sinceVersion;
+        this.menuVersion = menuVersion;
+    }
+
+    /**
+     * A delta view when the client sent the cart version it holds, otherwise the full cart.
+     * The menu version is the catalog version the client priced its copy with; when it is
+     * missing or stale every line is resent, since prices may have moved.
+     */
+    public static CartView of(Long sinceVersion, Long menuVersion) {
+        return sinceVersion == null ? FULL : new CartView(sinceVersion, menuVersion);
+    }
+
+    public boolean isDelta() {
+        return sinceVersion != null;
+    }
+
+    public Long getSinceVersion() {
+        return sinceVersion;
+    }
+
+    public Long getMenuVersion() {
+        return menuVersion;
+    }
+}
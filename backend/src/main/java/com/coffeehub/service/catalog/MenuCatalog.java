@@ -0,0 +1,288 @@
+package com.coffeehub.service.catalog;
+
+import com.coffeehub.dto.response.CategoryResponse;
+import com.coffeehub.dto.response.MenuItemResponse;
+import com.coffeehub.dto.response.ModifierResponse;
+import com.coffeehub.entity.Category;
+import com.coffeehub.entity.MenuItem;
+import com.coffeehub.entity.Modifier;
+import com.coffeehub.service.pricing.PriceTable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, versioned snapshot of the whole menu.
+ * Categories, items and modifiers are converted to responses once and linked together,
+ * so every read is a map or list lookup. The response objects are shared between
+ * requests and must be treated as read-only.
+ */
+public final class MenuCatalog {
+
+    private final long version;
+    private final LocalDateTime builtAt;
+
+    private final Map<Long, CategoryResponse> categoriesById;
+    private final List<CategoryResponse> activeCategories;
+
+    private final Map<Long, MenuItemResponse> itemsById;
+    private final List<MenuItemResponse> availableItems;
+    private final Map<Long, List<MenuItemResponse>> availableItemsByCategory;
+
+    private final Map<Long, ModifierResponse> modifiersById;
+    private final List<ModifierResponse> availableModifiers;
+    private final Map<Modifier.ModifierType, List<ModifierResponse>> availableModifiersByType;
+
+    private final MenuSearchIndex searchIndex;
+    private final MenuFacetIndex facetIndex;
+    private final PriceTable priceTable;
+    private final ModifierCompatibility modifierCompatibility;
+
+    private final MenuScheduleTimeline scheduleTimeline;
+    private final MenuScheduleTimeline.Slot scheduleSlot;
+
+    private final MenuChangeLog changeLog;
+
+    private MenuCatalog(long version, LocalDateTime builtAt, Map<Long, CategoryResponse> categoriesById,
+                        List<CategoryResponse> activeCategories, Map<Long, MenuItemResponse> itemsById,
+                        List<MenuItemResponse> availableItems, Map<Long, List<MenuItemResponse>> availableItemsByCategory,
+                        Map<Long, ModifierResponse> modifiersById, List<ModifierResponse> availableModifiers,
+                        Map<Modifier.ModifierType, List<ModifierResponse>> availableModifiersByType,
+                        MenuSearchIndex searchIndex, MenuFacetIndex facetIndex, PriceTable priceTable,
+                        ModifierCompatibility modifierCompatibility, MenuScheduleTimeline scheduleTimeline, MenuScheduleTimeline.Slot scheduleSlot,
+                        MenuChangeLog changeLog) {
+        this.version = version;
+        this.builtAt = builtAt;
+        this.categoriesById = categoriesById;
+        this.activeCategories = activeCategories;
+        this.itemsById = itemsById;
+        this.availableItems = availableItems;
+        this.availableItemsByCategory = availableItemsByCategory;
+        this.modifiersById = modifiersById;
+        this.availableModifiers = availableModifiers;
+        this.availableModifiersByType = availableModifiersByType;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+        this.priceTable = priceTable;
+        this.modifierCompatibility = modifierCompatibility;
+        this.scheduleTimeline = scheduleTimeline;
+        this.scheduleSlot = scheduleSlot;
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Builds a snapshot from fully initialised entities. Items must have their category
+     * and modifiers loaded; nothing is fetched lazily here.
+     */
+    public static MenuCatalog build(long version, List<Category> categories, List<MenuItem> items,
+                                    List<Modifier> modifiers) {
+        return build(version, categories, items, modifiers, MenuScheduleTimeline.EMPTY, LocalDateTime.now());
+    }
+
+    /**
+     * Builds a snapshot with the schedule windows open at the given time applied: scheduled
+     * categories and items outside their windows are left out of the active and available
+     * lists, and every scheduled response carries its {@code scheduledOpen} state.
+     */
+    public static MenuCatalog build(long version, List<Category> categories, List<MenuItem> items,
+                                    List<Modifier> modifiers, MenuScheduleTimeline timeline, LocalDateTime at) {
+        MenuScheduleTimeline.Slot slot = timeline.slotAt(at);
+
+        Map<Long, CategoryResponse> categoriesById = new LinkedHashMap<>();
+        categories.stream()
+                .sorted(Comparator.comparing(Category::getId))
+                .forEach(category -> {
+                    CategoryResponse response = MenuResponses.toCategoryResponse(category);
+                    response.setScheduledOpen(slot.categoryOpen(category.getId()));
+                    categoriesById.put(category.getId(), response);
+                });
+
+        List<CategoryResponse> activeCategories = categoriesById.values().stream()
+                .filter(category -> isOpen(category.getActive(), category.getScheduledOpen()))
+                .sorted(Comparator.comparing((CategoryResponse category) -> category.getDisplayOrder() != null ? category.getDisplayOrder() : 0)
+                        .thenComparing(CategoryResponse::getId))
+                .toList();
+
+        Map<Long, ModifierResponse> modifiersById = new LinkedHashMap<>();
+        modifiers.stream()
+                .sorted(Comparator.comparing(Modifier::getId))
+                .forEach(modifier -> modifiersById.put(modifier.getId(), MenuResponses.toModifierResponse(modifier)));
+
+        List<ModifierResponse> availableModifiers = modifiersById.values().stream()
+                .filter(modifier -> Boolean.TRUE.equals(modifier.getAvailable()))
+                .toList();
+
+        Map<Modifier.ModifierType, List<ModifierResponse>> availableModifiersByType = new EnumMap<>(Modifier.ModifierType.class);
+        for (Modifier.ModifierType type : Modifier.ModifierType.values()) {
+            availableModifiersByType.put(type, availableModifiers.stream()
+                    .filter(modifier -> modifier.getType() == type)
+                    .toList());
+        }
+
+        Map<Long, MenuItemResponse> itemsById = new LinkedHashMap<>();
+        List<MenuItemResponse> availableItems = new ArrayList<>();
+        Map<Long, List<MenuItemResponse>> availableItemsByCategory = new HashMap<>();
+
+        items.stream()
+                .sorted(Comparator.comparing(MenuItem::getId))
+                .forEach(item -> {
+                    CategoryResponse category = categoriesById.get(item.getCategory().getId());
+                    if (category == null) {
+                        category = MenuResponses.toCategoryResponse(item.getCategory());
+                    }
+                    List<ModifierResponse> itemModifiers = item.getModifiers().stream()
+                            .map(modifier -> modifiersById.getOrDefault(modifier.getId(), MenuResponses.toModifierResponse(modifier)))
+                            .toList();
+
+                    MenuItemResponse response = MenuResponses.toMenuItemResponse(item, category, itemModifiers);
+                    response.setScheduledOpen(slot.itemOpen(item.getId()));
+                    itemsById.put(response.getId(), response);
+
+                    if (isOpen(response.getAvailable(), response.getScheduledOpen())) {
+                        availableItemsByCategory.computeIfAbsent(category.getId(), id -> new ArrayList<>()).add(response);
+                        if (isOpen(category.getActive(), category.getScheduledOpen())) {
+                            availableItems.add(response);
+                        }
+                    }
+                });
+
+        availableItemsByCategory.replaceAll((id, list) -> List.copyOf(list));
+
+        // Search covers every available item, including those of inactive categories
+        MenuSearchIndex searchIndex = MenuSearchIndex.build(itemsById.values().stream()
+                .filter(item -> isOpen(item.getAvailable(), item.getScheduledOpen()))
+                .toList());
+
+        List<MenuItemResponse> orderableItems = List.copyOf(availableItems);
+        MenuFacetIndex facetIndex = MenuFacetIndex.build(orderableItems, activeCategories);
+
+        return new MenuCatalog(version, LocalDateTime.now(),
+                Collections.unmodifiableMap(categoriesById),
+                activeCategories,
+                Collections.unmodifiableMap(itemsById),
+                orderableItems,
+                Collections.unmodifiableMap(availableItemsByCategory),
+                Collections.unmodifiableMap(modifiersById),
+                availableModifiers,
+                Collections.unmodifiableMap(availableModifiersByType),
+                searchIndex,
+                facetIndex,
+                PriceTable.build(itemsById.values(), modifiersById.values()),
+                ModifierCompatibility.build(items, modifiers),
+                timeline,
+                slot,
+                MenuChangeLog.startingAt(version));
+    }
+
+    // Staff switch on and, when scheduled, inside one of its windows
+    private static boolean isOpen(Boolean enabled, Boolean scheduledOpen) {
+        return Boolean.TRUE.equals(enabled) && !Boolean.FALSE.equals(scheduledOpen);
+    }
+
+    /**
+     * Returns this snapshot carrying the given change log, so the log and the data it
+     * describes are published together.
+     */
+    public MenuCatalog withChangeLog(MenuChangeLog log) {
+        return new MenuCatalog(version, builtAt, categoriesById, activeCategories, itemsById, availableItems,
+                availableItemsByCategory, modifiersById, availableModifiers, availableModifiersByType,
+                searchIndex, facetIndex, priceTable, modifierCompatibility, scheduleTimeline, scheduleSlot, log);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public MenuChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    public MenuSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    public MenuFacetIndex getFacetIndex() {
+        return facetIndex;
+    }
+
+    /** Prices of every item and modifier, available or not. */
+    public PriceTable getPriceTable() {
+        return priceTable;
+    }
+
+    /** Which modifiers each item accepts, and how many of each type. */
+    public ModifierCompatibility getModifierCompatibility() {
+        return modifierCompatibility;
+    }
+
+    /** The compiled schedule rules this snapshot was built from. */
+    public MenuScheduleTimeline getScheduleTimeline() {
+        return scheduleTimeline;
+    }
+
+    /** The schedule state baked into this snapshot's active and available lists. */
+    public MenuScheduleTimeline.Slot getScheduleSlot() {
+        return scheduleSlot;
+    }
+
+    public CategoryResponse findCategory(Long id) {
+        return categoriesById.get(id);
+    }
+
+    public MenuItemResponse findItem(Long id) {
+        return itemsById.get(id);
+    }
+
+    public ModifierResponse findModifier(Long id) {
+        return modifiersById.get(id);
+    }
+
+    /** All categories, active or not, in id order. */
+    public Map<Long, CategoryResponse> getCategoriesById() {
+        return categoriesById;
+    }
+
+    /** Active categories ordered by display order. */
+    public List<CategoryResponse> getActiveCategories() {
+        return activeCategories;
+    }
+
+    /** All items, available or not, in id order. */
+    public Map<Long, MenuItemResponse> getItemsById() {
+        return itemsById;
+    }
+
+    /** Available items whose category is active, both within their schedule windows. */
+    public List<MenuItemResponse> getAvailableItems() {
+        return availableItems;
+    }
+
+    /** Available items of one category, regardless of whether the category is active. */
+    public List<MenuItemResponse> getAvailableItemsByCategory(Long categoryId) {
+        return availableItemsByCategory.getOrDefault(categoryId, List.of());
+    }
+
+    /** All modifiers, available or not, in id order. */
+    public Map<Long, ModifierResponse> getModifiersById() {
+        return modifiersById;
+    }
+
+    public List<ModifierResponse> getAvailableModifiers() {
+        return availableModifiers;
+    }
+
+    public List<ModifierResponse> getAvailableModifiersByType(Modifier.ModifierType type) {
+        return availableModifiersByType.getOrDefault(type, List.of());
+    }
+}
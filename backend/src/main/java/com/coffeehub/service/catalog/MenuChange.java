@@ -0,0 +1,34 @@
+package com.coffeehub.service.catalog;
+
+/**
+ * One entry of the menu change log: an entity that was created, updated or deleted
+ * in the given catalog version. The entity's current state is read from the catalog.
+ */
+public final class MenuChange {
+
+    public enum EntityType {
+        CATEGORY, MENU_ITEM, MODIFIER
+    }
+
+    private final long version;
+    private final EntityType entityType;
+    private final long entityId;
+
+    public MenuChange(long version, EntityType entityType, long entityId) {
+        this.version = version;
+        this.entityType = entityType;
+        this.entityId = entityId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public long getEntityId() {
+        return entityId;
+    }
+}
@@ -0,0 +1,109 @@
+package com.coffeehub.service.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable, bounded log of menu changes ordered by catalog version.
+ * When the log grows past its capacity the oldest entries are compacted away and
+ * the floor version moves up; clients behind the floor need a full snapshot.
+ */
+public final class MenuChangeLog {
+
+    private final long floorVersion;
+    private final List<MenuChange> entries;
+
+    private MenuChangeLog(long floorVersion, List<MenuChange> entries) {
+        this.floorVersion = floorVersion;
+        this.entries = entries;
+    }
+
+    public static MenuChangeLog startingAt(long version) {
+        return new MenuChangeLog(version, List.of());
+    }
+
+    /**
+     * Lowest client version that can still be answered with a delta.
+     */
+    public long getFloorVersion() {
+        return floorVersion;
+    }
+
+    public List<MenuChange> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Changes recorded after the given version, oldest first.
+     */
+    public List<MenuChange> changesSince(long since) {
+        return entries.subList(firstAfter(since), entries.size());
+    }
+
+    /**
+     * The newest logged version at or below {@code since}. Every client version between it and
+     * the next logged version receives the same delta, so callers can key caches by it.
+     */
+    public long baseVersionFor(long since) {
+        int index = firstAfter(since);
+        return index > 0 ? Math.max(floorVersion, entries.get(index - 1).getVersion()) : floorVersion;
+    }
+
+    private int firstAfter(long since) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries.get(mid).getVersion() <= since) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns a new log with the differences between two catalogs appended under the
+     * newer catalog's version, compacted to at most {@code capacity} entries.
+     */
+    public MenuChangeLog append(MenuCatalog previous, MenuCatalog next, int capacity) {
+        long version = next.getVersion();
+        List<MenuChange> changes = new ArrayList<>();
+        diff(previous.getCategoriesById(), next.getCategoriesById(), MenuChange.EntityType.CATEGORY, version, changes);
+        diff(previous.getItemsById(), next.getItemsById(), MenuChange.EntityType.MENU_ITEM, version, changes);
+        diff(previous.getModifiersById(), next.getModifiersById(), MenuChange.EntityType.MODIFIER, version, changes);
+
+        if (changes.isEmpty()) {
+            return this;
+        }
+
+        List<MenuChange> combined = new ArrayList<>(entries.size() + changes.size());
+        combined.addAll(entries);
+        combined.addAll(changes);
+
+        long floor = floorVersion;
+        int overflow = combined.size() - capacity;
+        if (overflow > 0) {
+            // A version may be split by compaction, so the floor becomes the newest dropped version
+            floor = Math.max(floor, combined.get(overflow - 1).getVersion());
+            combined = new ArrayList<>(combined.subList(overflow, combined.size()));
+        }
+        return new MenuChangeLog(floor, Collections.unmodifiableList(combined));
+    }
+
+    private static <T> void diff(Map<Long, T> before, Map<Long, T> after, MenuChange.EntityType type,
+                                 long version, List<MenuChange> changes) {
+        after.forEach((id, value) -> {
+            if (!Objects.equals(before.get(id), value)) {
+                changes.add(new MenuChange(version, type, id));
+            }
+        });
+        before.keySet().stream()
+                .filter(id -> !after.containsKey(id))
+                .forEach(id -> changes.add(new MenuChange(version, type, id)));
+    }
+}
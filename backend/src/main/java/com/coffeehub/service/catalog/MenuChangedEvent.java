@@ -0,0 +1,19 @@
+package com.coffeehub.service.catalog;
+
+/**
+ * Published by {@link com.coffeehub.service.MenuService} whenever a category, menu item
+ * or modifier is written. The catalog snapshot is rebuilt once the surrounding
+ * transaction has committed.
+ */
+public class MenuChangedEvent {
+
+    private final String reason;
+
+    public MenuChangedEvent(String reason) {
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
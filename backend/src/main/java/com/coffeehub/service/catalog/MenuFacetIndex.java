@@ -0,0 +1,206 @@
+package com.coffeehub.service.catalog;
+
+import com.coffeehub.dto.response.CategoryResponse;
+import com.coffeehub.dto.response.MenuItemResponse;
+import com.coffeehub.dto.response.ModifierResponse;
+import com.coffeehub.entity.Modifier;
+import com.coffeehub.service.pricing.Money;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facet bitsets over the orderable items of one catalog snapshot.
+ * Every facet value (category, modifier type, price bucket) is a bitset of item ordinals,
+ * so applying filters is a handful of ORs and ANDs and every count is a popcount.
+ * Values within one facet are OR-ed; facets are AND-ed together. Each facet's counts are
+ * computed against the other facets' filters only, so ticking a value does not zero out
+ * its siblings.
+ */
+public final class MenuFacetIndex {
+
+    /** Upper bounds (exclusive, in cents) of the price buckets; the last bucket is open ended. */
+    static final long[] PRICE_BUCKET_BOUNDS = {300, 500, 800};
+
+    public static final class Query {
+        private final Collection<Long> categoryIds;
+        private final Collection<Modifier.ModifierType> modifierTypes;
+        private final Collection<String> priceBuckets;
+
+        public Query(Collection<Long> categoryIds, Collection<Modifier.ModifierType> modifierTypes,
+                     Collection<String> priceBuckets) {
+            this.categoryIds = categoryIds != null ? categoryIds : List.of();
+            this.modifierTypes = modifierTypes != null ? modifierTypes : List.of();
+            this.priceBuckets = priceBuckets != null ? priceBuckets : List.of();
+        }
+    }
+
+    public static final class Result {
+        private final List<MenuItemResponse> items;
+        private final Map<Long, Integer> categoryCounts;
+        private final Map<Modifier.ModifierType, Integer> modifierTypeCounts;
+        private final Map<String, Integer> priceBucketCounts;
+
+        Result(List<MenuItemResponse> items, Map<Long, Integer> categoryCounts,
+               Map<Modifier.ModifierType, Integer> modifierTypeCounts, Map<String, Integer> priceBucketCounts) {
+            this.items = items;
+            this.categoryCounts = categoryCounts;
+            this.modifierTypeCounts = modifierTypeCounts;
+            this.priceBucketCounts = priceBucketCounts;
+        }
+
+        public List<MenuItemResponse> getItems() {
+            return items;
+        }
+
+        /** Count per category, in display order. */
+        public Map<Long, Integer> getCategoryCounts() {
+            return categoryCounts;
+        }
+
+        public Map<Modifier.ModifierType, Integer> getModifierTypeCounts() {
+            return modifierTypeCounts;
+        }
+
+        /** Count per price bucket label, cheapest first. */
+        public Map<String, Integer> getPriceBucketCounts() {
+            return priceBucketCounts;
+        }
+    }
+
+    private final MenuItemResponse[] items;
+    private final BitSet all;
+    private final Map<Long, BitSet> byCategory;
+    private final Map<Modifier.ModifierType, BitSet> byModifierType;
+    private final Map<String, BitSet> byPriceBucket;
+
+    private MenuFacetIndex(MenuItemResponse[] items, Map<Long, BitSet> byCategory,
+                           Map<Modifier.ModifierType, BitSet> byModifierType, Map<String, BitSet> byPriceBucket) {
+        this.items = items;
+        this.all = new BitSet(items.length);
+        this.all.set(0, items.length);
+        this.byCategory = byCategory;
+        this.byModifierType = byModifierType;
+        this.byPriceBucket = byPriceBucket;
+    }
+
+    /**
+     * Builds the facets; categories appear in the given order even when they have no items.
+     */
+    public static MenuFacetIndex build(List<MenuItemResponse> orderableItems, List<CategoryResponse> categories) {
+        MenuItemResponse[] items = orderableItems.toArray(new MenuItemResponse[0]);
+
+        Map<Long, BitSet> byCategory = new LinkedHashMap<>();
+        for (CategoryResponse category : categories) {
+            byCategory.put(category.getId(), new BitSet(items.length));
+        }
+        Map<Modifier.ModifierType, BitSet> byModifierType = new EnumMap<>(Modifier.ModifierType.class);
+        for (Modifier.ModifierType type : Modifier.ModifierType.values()) {
+            byModifierType.put(type, new BitSet(items.length));
+        }
+        Map<String, BitSet> byPriceBucket = new LinkedHashMap<>();
+        for (int bucket = 0; bucket <= PRICE_BUCKET_BOUNDS.length; bucket++) {
+            byPriceBucket.put(priceBucketLabel(bucket), new BitSet(items.length));
+        }
+
+        for (int ordinal = 0; ordinal < items.length; ordinal++) {
+            MenuItemResponse item = items[ordinal];
+            byCategory.computeIfAbsent(item.getCategory().getId(), id -> new BitSet(items.length)).set(ordinal);
+            if (item.getModifiers() != null) {
+                for (ModifierResponse modifier : item.getModifiers()) {
+                    if (Boolean.TRUE.equals(modifier.getAvailable())) {
+                        byModifierType.get(modifier.getType()).set(ordinal);
+                    }
+                }
+            }
+            byPriceBucket.get(priceBucketLabel(priceBucket(item.getPrice()))).set(ordinal);
+        }
+
+        return new MenuFacetIndex(items, byCategory, byModifierType, byPriceBucket);
+    }
+
+    public Result query(Query query) {
+        BitSet categoryFilter = union(byCategory, query.categoryIds);
+        BitSet modifierTypeFilter = union(byModifierType, query.modifierTypes);
+        BitSet priceFilter = union(byPriceBucket, query.priceBuckets);
+
+        BitSet scratch = new BitSet(items.length);
+
+        BitSet others = intersect(modifierTypeFilter, priceFilter);
+        Map<Long, Integer> categoryCounts = counts(byCategory, others, scratch);
+
+        others = intersect(categoryFilter, priceFilter);
+        Map<Modifier.ModifierType, Integer> modifierTypeCounts = new EnumMap<>(Modifier.ModifierType.class);
+        modifierTypeCounts.putAll(counts(byModifierType, others, scratch));
+
+        others = intersect(categoryFilter, modifierTypeFilter);
+        Map<String, Integer> priceBucketCounts = counts(byPriceBucket, others, scratch);
+
+        BitSet matches = intersect(intersect(categoryFilter, modifierTypeFilter), priceFilter);
+        List<MenuItemResponse> results = new ArrayList<>(matches.cardinality());
+        for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+            results.add(items[ordinal]);
+        }
+        return new Result(results, categoryCounts, modifierTypeCounts, priceBucketCounts);
+    }
+
+    /** Union of the selected values, or every item when nothing in this facet is selected. */
+    private <K> BitSet union(Map<K, BitSet> facet, Collection<K> selected) {
+        if (selected.isEmpty()) {
+            return all;
+        }
+        BitSet union = new BitSet(items.length);
+        for (K value : selected) {
+            BitSet bits = facet.get(value);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return union;
+    }
+
+    private static BitSet intersect(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result;
+    }
+
+    private static <K> Map<K, Integer> counts(Map<K, BitSet> facet, BitSet filter, BitSet scratch) {
+        Map<K, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<K, BitSet> value : facet.entrySet()) {
+            scratch.clear();
+            scratch.or(value.getValue());
+            scratch.and(filter);
+            counts.put(value.getKey(), scratch.cardinality());
+        }
+        return counts;
+    }
+
+    static int priceBucket(BigDecimal price) {
+        long cents = Money.toCents(price);
+        int bucket = 0;
+        while (bucket < PRICE_BUCKET_BOUNDS.length && cents >= PRICE_BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /** Bucket labels in whole currency units, e.g. "3-5" or "8+". */
+    static String priceBucketLabel(int bucket) {
+        long lower = bucket == 0 ? 0 : PRICE_BUCKET_BOUNDS[bucket - 1];
+        if (bucket == PRICE_BUCKET_BOUNDS.length) {
+            return formatUnits(lower) + "+";
+        }
+        return formatUnits(lower) + "-" + formatUnits(PRICE_BUCKET_BOUNDS[bucket]);
+    }
+
+    private static String formatUnits(long cents) {
+        return BigDecimal.valueOf(cents, 2).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,66 @@
+package com.coffeehub.service.catalog;
+
+/**
+ * One menu endpoint body rendered for a single catalog version, kept both as plain JSON
+ * and gzip-compressed. Each coding has its own ETag: the gzip tag is the identity tag with a
+ * {@code -gzip} suffix. The tags are weak because they cover the data but not the render
+ * timestamp in the body, so equal tags mean equal data, not equal bytes.
+ */
+public final class MenuPayload {
+
+    private final long catalogVersion;
+    // Quoted hash of the data, without the W/ prefix
+    private final String etag;
+    private final byte[] identity;
+    private final byte[] gzip;
+
+    public MenuPayload(long catalogVersion, String etag, byte[] identity, byte[] gzip) {
+        this.catalogVersion = catalogVersion;
+        this.etag = etag;
+        this.identity = identity;
+        this.gzip = gzip;
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public String getEtag(boolean gzipped) {
+        return "W/" + opaqueTag(gzipped);
+    }
+
+    private String opaqueTag(boolean gzipped) {
+        return gzipped ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag;
+    }
+
+    public byte[] getIdentity() {
+        return identity;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so a W/ prefix on the client's tag is ignored.
+     * The client's tag is compared with the tag of the coding that would be sent.
+     */
+    public boolean matches(String ifNoneMatch, boolean gzipped) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(opaqueTag(gzipped))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,67 @@
+package com.coffeehub.service.catalog;
+
+import com.coffeehub.dto.response.CategoryResponse;
+import com.coffeehub.dto.response.MenuItemResponse;
+import com.coffeehub.dto.response.ModifierResponse;
+import com.coffeehub.entity.Category;
+import com.coffeehub.entity.MenuItem;
+import com.coffeehub.entity.Modifier;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Entity to response conversions shared by the menu service and the catalog snapshot.
+ */
+public final class MenuResponses {
+
+    private MenuResponses() {
+    }
+
+    public static CategoryResponse toCategoryResponse(Category category) {
+        CategoryResponse response = new CategoryResponse();
+        response.setId(category.getId());
+        response.setName(category.getName());
+        response.setDescription(category.getDescription());
+        response.setImageUrl(category.getImageUrl());
+        response.setDisplayOrder(category.getDisplayOrder());
+        response.setActive(category.getActive());
+        response.setCreatedAt(category.getCreatedAt());
+        return response;
+    }
+
+    public static MenuItemResponse toMenuItemResponse(MenuItem menuItem) {
+        return toMenuItemResponse(menuItem,
+                toCategoryResponse(menuItem.getCategory()),
+                menuItem.getModifiers().stream()
+                        .map(MenuResponses::toModifierResponse)
+                        .collect(Collectors.toList()));
+    }
+
+    public static MenuItemResponse toMenuItemResponse(MenuItem menuItem, CategoryResponse category,
+                                                      List<ModifierResponse> modifiers) {
+        MenuItemResponse response = new MenuItemResponse();
+        response.setId(menuItem.getId());
+        response.setName(menuItem.getName());
+        response.setDescription(menuItem.getDescription());
+        response.setPrice(menuItem.getPrice());
+        response.setImageUrl(menuItem.getImageUrl());
+        response.setCategory(category);
+        response.setAvailable(menuItem.getAvailable());
+        response.setPreparationTime(menuItem.getPreparationTime());
+        response.setCreatedAt(menuItem.getCreatedAt());
+        response.setModifiers(modifiers);
+        return response;
+    }
+
+    public static ModifierResponse toModifierResponse(Modifier modifier) {
+        ModifierResponse response = new ModifierResponse();
+        response.setId(modifier.getId());
+        response.setName(modifier.getName());
+        response.setType(modifier.getType());
+        response.setPriceAdjustment(modifier.getPriceAdjustment());
+        response.setAvailable(modifier.getAvailable());
+        response.setCreatedAt(modifier.getCreatedAt());
+        return response;
+    }
+}
@@ -0,0 +1,238 @@
+package com.coffeehub.service.catalog;
+
+import com.coffeehub.entity.MenuSchedule;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schedule rules compiled into one week of minute slots.
+ * Every minute of the week points at a precomputed {@link Slot} holding which scheduled
+ * categories and items are open, so "what is open now" is one array lookup. Minutes where
+ * any target opens or closes are kept as transitions for the boundary timer.
+ */
+public final class MenuScheduleTimeline {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    public static final MenuScheduleTimeline EMPTY = compile(List.of(), null);
+
+    /**
+     * Open / closed state of every scheduled target between two transitions.
+     * Lookups answer {@code null} for targets without a schedule.
+     */
+    public static final class Slot {
+        private final long[] categoryIds;
+        private final long[] itemIds;
+        private final BitSet openCategories;
+        private final BitSet openItems;
+
+        Slot(long[] categoryIds, long[] itemIds, BitSet openCategories, BitSet openItems) {
+            this.categoryIds = categoryIds;
+            this.itemIds = itemIds;
+            this.openCategories = openCategories;
+            this.openItems = openItems;
+        }
+
+        public Boolean categoryOpen(long categoryId) {
+            int index = Arrays.binarySearch(categoryIds, categoryId);
+            return index < 0 ? null : openCategories.get(index);
+        }
+
+        public Boolean itemOpen(long menuItemId) {
+            int index = Arrays.binarySearch(itemIds, menuItemId);
+            return index < 0 ? null : openItems.get(index);
+        }
+
+        /** Whether an item of the given category is inside its windows; unscheduled targets are always open. */
+        public boolean isOpen(long categoryId, long menuItemId) {
+            return !Boolean.FALSE.equals(categoryOpen(categoryId)) && !Boolean.FALSE.equals(itemOpen(menuItemId));
+        }
+
+        boolean sameState(Slot other) {
+            return other != null && openCategories.equals(other.openCategories) && openItems.equals(other.openItems)
+                    && Arrays.equals(categoryIds, other.categoryIds) && Arrays.equals(itemIds, other.itemIds);
+        }
+    }
+
+    private final Slot[] slotByMinute;
+    private final int[] transitions;
+    private final int ruleCount;
+
+    private MenuScheduleTimeline(Slot[] slotByMinute, int[] transitions, int ruleCount) {
+        this.slotByMinute = slotByMinute;
+        this.transitions = transitions;
+        this.ruleCount = ruleCount;
+    }
+
+    /**
+     * Compiles the active rules that apply at the given location. For each target, rules for
+     * that location replace the rules without a location; rules for other locations are ignored.
+     */
+    public static MenuScheduleTimeline compile(Collection<MenuSchedule> schedules, String location) {
+        Map<Long, List<MenuSchedule>> categoryRules = new LinkedHashMap<>();
+        Map<Long, List<MenuSchedule>> itemRules = new LinkedHashMap<>();
+        for (MenuSchedule schedule : schedules) {
+            if (!Boolean.TRUE.equals(schedule.getActive())) {
+                continue;
+            }
+            Map<Long, List<MenuSchedule>> rules = schedule.getTargetType() == MenuSchedule.TargetType.CATEGORY
+                    ? categoryRules : itemRules;
+            rules.computeIfAbsent(schedule.getTargetId(), id -> new ArrayList<>()).add(schedule);
+        }
+
+        long[] categoryIds = sortedIds(categoryRules);
+        long[] itemIds = sortedIds(itemRules);
+        BitSet[] categoryWeeks = weeks(categoryIds, categoryRules, location);
+        BitSet[] itemWeeks = weeks(itemIds, itemRules, location);
+
+        // A transition is any minute where some target differs from the minute before it
+        BitSet changes = new BitSet(MINUTES_PER_WEEK);
+        markTransitions(categoryWeeks, changes);
+        markTransitions(itemWeeks, changes);
+        int[] transitions = changes.stream().toArray();
+
+        Slot[] slotByMinute = new Slot[MINUTES_PER_WEEK];
+        if (transitions.length == 0) {
+            Arrays.fill(slotByMinute, slotAt(0, categoryIds, itemIds, categoryWeeks, itemWeeks));
+        } else {
+            for (int i = 0; i < transitions.length; i++) {
+                int start = transitions[i];
+                int end = i + 1 < transitions.length ? transitions[i + 1] : transitions[0] + MINUTES_PER_WEEK;
+                Slot slot = slotAt(start, categoryIds, itemIds, categoryWeeks, itemWeeks);
+                for (int minute = start; minute < end; minute++) {
+                    slotByMinute[minute % MINUTES_PER_WEEK] = slot;
+                }
+            }
+        }
+
+        int ruleCount = categoryRules.values().stream().mapToInt(List::size).sum()
+                + itemRules.values().stream().mapToInt(List::size).sum();
+        return new MenuScheduleTimeline(slotByMinute, transitions, ruleCount);
+    }
+
+    public Slot slotAt(LocalDateTime time) {
+        return slotByMinute[minuteOfWeek(time)];
+    }
+
+    /**
+     * Start of the next minute at which some target opens or closes, or {@code null} when
+     * nothing is scheduled to change.
+     */
+    public LocalDateTime nextTransitionAfter(LocalDateTime time) {
+        if (transitions.length == 0) {
+            return null;
+        }
+        int minute = minuteOfWeek(time);
+        int index = Arrays.binarySearch(transitions, minute + 1);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        int next = index < transitions.length ? transitions[index] : transitions[0] + MINUTES_PER_WEEK;
+        return time.truncatedTo(ChronoUnit.MINUTES).plusMinutes(next - minute);
+    }
+
+    public int getTransitionCount() {
+        return transitions.length;
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    public static int minuteOfWeek(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    private static long[] sortedIds(Map<Long, List<MenuSchedule>> rules) {
+        return rules.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static BitSet[] weeks(long[] ids, Map<Long, List<MenuSchedule>> rules, String location) {
+        BitSet[] weeks = new BitSet[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            weeks[i] = week(applicableRules(rules.get(ids[i]), location));
+        }
+        return weeks;
+    }
+
+    private static List<MenuSchedule> applicableRules(List<MenuSchedule> rules, String location) {
+        List<MenuSchedule> local = new ArrayList<>();
+        List<MenuSchedule> global = new ArrayList<>();
+        for (MenuSchedule rule : rules) {
+            if (rule.getLocation() == null || rule.getLocation().isBlank()) {
+                global.add(rule);
+            } else if (location != null && rule.getLocation().trim().equalsIgnoreCase(location.trim())) {
+                local.add(rule);
+            }
+        }
+        return !local.isEmpty() ? local : global;
+    }
+
+    /**
+     * Minutes of the week covered by the rules. A target whose only rules belong to other
+     * locations gets an all-open week, i.e. it is not scheduled here.
+     */
+    private static BitSet week(List<MenuSchedule> rules) {
+        BitSet week = new BitSet(MINUTES_PER_WEEK);
+        if (rules.isEmpty()) {
+            week.set(0, MINUTES_PER_WEEK);
+            return week;
+        }
+        for (MenuSchedule rule : rules) {
+            int start = rule.getStartTime().getHour() * 60 + rule.getStartTime().getMinute();
+            int end = rule.getEndTime().getHour() * 60 + rule.getEndTime().getMinute();
+            int length = end > start ? end - start : MINUTES_PER_DAY - start + end;
+            int days = rule.getDaysOfWeek() != null ? rule.getDaysOfWeek() : MenuSchedule.ALL_DAYS;
+            for (int day = 0; day < 7; day++) {
+                if ((days & (1 << day)) == 0) {
+                    continue;
+                }
+                int from = day * MINUTES_PER_DAY + start;
+                int to = from + length;
+                if (to <= MINUTES_PER_WEEK) {
+                    week.set(from, to);
+                } else {
+                    // Sunday night windows wrap into Monday morning
+                    week.set(from, MINUTES_PER_WEEK);
+                    week.set(0, to - MINUTES_PER_WEEK);
+                }
+            }
+        }
+        return week;
+    }
+
+    private static void markTransitions(BitSet[] weeks, BitSet changes) {
+        for (BitSet week : weeks) {
+            for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+                int previous = minute == 0 ? MINUTES_PER_WEEK - 1 : minute - 1;
+                if (week.get(minute) != week.get(previous)) {
+                    changes.set(minute);
+                }
+            }
+        }
+    }
+
+    private static Slot slotAt(int minute, long[] categoryIds, long[] itemIds,
+                               BitSet[] categoryWeeks, BitSet[] itemWeeks) {
+        return new Slot(categoryIds, itemIds, openAt(minute, categoryWeeks), openAt(minute, itemWeeks));
+    }
+
+    private static BitSet openAt(int minute, BitSet[] weeks) {
+        BitSet open = new BitSet(weeks.length);
+        for (int i = 0; i < weeks.length; i++) {
+            if (weeks[i].get(minute)) {
+                open.set(i);
+            }
+        }
+        return open;
+    }
+}
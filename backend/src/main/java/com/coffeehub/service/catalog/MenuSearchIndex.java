@@ -0,0 +1,314 @@
+package com.coffeehub.service.catalog;
+
+import com.coffeehub.dto.response.MenuItemResponse;
+import com.coffeehub.dto.response.ModifierResponse;
+import com.coffeehub.service.pricing.Money;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over the available items of one catalog snapshot.
+ * Item names, descriptions, category names and modifier names are tokenized into a sorted
+ * vocabulary with per-term posting lists. Queries support exact, prefix and single-edit
+ * fuzzy matches and rank by field weight; price and category filters use pre-sorted arrays.
+ */
+public final class MenuSearchIndex {
+
+    private static final float NAME_WEIGHT = 4.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float MODIFIER_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final float EXACT_MATCH = 1.0f;
+    private static final float PREFIX_MATCH = 0.7f;
+    private static final float FUZZY_MATCH = 0.4f;
+
+    // Shorter tokens produce too many accidental one-edit matches
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private final MenuItemResponse[] items;
+
+    private final String[] terms;
+    private final int[][] postings;
+    private final float[][] weights;
+
+    private final int[] ordinalsByPrice;
+    private final long[] sortedPriceCents;
+    private final Map<Long, int[]> ordinalsByCategory;
+
+    private MenuSearchIndex(MenuItemResponse[] items, String[] terms, int[][] postings, float[][] weights,
+                            int[] ordinalsByPrice, long[] sortedPriceCents, Map<Long, int[]> ordinalsByCategory) {
+        this.items = items;
+        this.terms = terms;
+        this.postings = postings;
+        this.weights = weights;
+        this.ordinalsByPrice = ordinalsByPrice;
+        this.sortedPriceCents = sortedPriceCents;
+        this.ordinalsByCategory = ordinalsByCategory;
+    }
+
+    /**
+     * Indexes the given items; their position in the list becomes their ordinal.
+     */
+    public static MenuSearchIndex build(List<MenuItemResponse> indexedItems) {
+        MenuItemResponse[] items = indexedItems.toArray(new MenuItemResponse[0]);
+
+        // term -> (ordinal -> accumulated weight), kept sorted by term
+        TreeMap<String, TreeMap<Integer, Float>> inverted = new TreeMap<>();
+        for (int ordinal = 0; ordinal < items.length; ordinal++) {
+            MenuItemResponse item = items[ordinal];
+            Map<String, Float> itemTerms = new HashMap<>();
+            addTerms(itemTerms, item.getName(), NAME_WEIGHT);
+            addTerms(itemTerms, item.getDescription(), DESCRIPTION_WEIGHT);
+            if (item.getCategory() != null) {
+                addTerms(itemTerms, item.getCategory().getName(), CATEGORY_WEIGHT);
+            }
+            if (item.getModifiers() != null) {
+                for (ModifierResponse modifier : item.getModifiers()) {
+                    addTerms(itemTerms, modifier.getName(), MODIFIER_WEIGHT);
+                }
+            }
+            final int itemOrdinal = ordinal;
+            itemTerms.forEach((term, weight) ->
+                    inverted.computeIfAbsent(term, t -> new TreeMap<>()).put(itemOrdinal, weight));
+        }
+
+        String[] terms = new String[inverted.size()];
+        int[][] postings = new int[inverted.size()][];
+        float[][] weights = new float[inverted.size()][];
+        int termIndex = 0;
+        for (Map.Entry<String, TreeMap<Integer, Float>> entry : inverted.entrySet()) {
+            terms[termIndex] = entry.getKey();
+            postings[termIndex] = new int[entry.getValue().size()];
+            weights[termIndex] = new float[entry.getValue().size()];
+            int i = 0;
+            for (Map.Entry<Integer, Float> posting : entry.getValue().entrySet()) {
+                postings[termIndex][i] = posting.getKey();
+                weights[termIndex][i] = posting.getValue();
+                i++;
+            }
+            termIndex++;
+        }
+
+        Integer[] byPrice = new Integer[items.length];
+        for (int i = 0; i < items.length; i++) {
+            byPrice[i] = i;
+        }
+        long[] cents = new long[items.length];
+        for (int i = 0; i < items.length; i++) {
+            cents[i] = Money.toCents(items[i].getPrice());
+        }
+        Arrays.sort(byPrice, (a, b) -> Long.compare(cents[a], cents[b]));
+        int[] ordinalsByPrice = new int[items.length];
+        long[] sortedPriceCents = new long[items.length];
+        for (int i = 0; i < items.length; i++) {
+            ordinalsByPrice[i] = byPrice[i];
+            sortedPriceCents[i] = cents[byPrice[i]];
+        }
+
+        Map<Long, List<Integer>> categoryLists = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            if (items[i].getCategory() != null) {
+                categoryLists.computeIfAbsent(items[i].getCategory().getId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<Long, int[]> ordinalsByCategory = new HashMap<>();
+        categoryLists.forEach((id, list) -> ordinalsByCategory.put(id, list.stream().mapToInt(Integer::intValue).toArray()));
+
+        return new MenuSearchIndex(items, terms, postings, weights, ordinalsByPrice, sortedPriceCents, ordinalsByCategory);
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Runs a query with optional filters. Every query token must match the item (by exact,
+     * prefix or fuzzy term match); results are ranked by score, or returned in catalog order
+     * when the query is blank.
+     */
+    public List<MenuItemResponse> search(String query, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        BitSet allowed = filter(categoryId, minPrice, maxPrice);
+        String[] tokens = tokenize(query);
+
+        if (tokens.length == 0) {
+            List<MenuItemResponse> results = new ArrayList<>(allowed.cardinality());
+            for (int ordinal = allowed.nextSetBit(0); ordinal >= 0; ordinal = allowed.nextSetBit(ordinal + 1)) {
+                results.add(items[ordinal]);
+            }
+            return results;
+        }
+
+        float[] total = new float[items.length];
+        float[] tokenScores = new float[items.length];
+        for (String token : tokens) {
+            Arrays.fill(tokenScores, 0f);
+            scoreToken(token, tokenScores);
+            for (int ordinal = allowed.nextSetBit(0); ordinal >= 0; ordinal = allowed.nextSetBit(ordinal + 1)) {
+                if (tokenScores[ordinal] == 0f) {
+                    allowed.clear(ordinal);
+                } else {
+                    total[ordinal] += tokenScores[ordinal];
+                }
+            }
+            if (allowed.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Integer[] matches = new Integer[allowed.cardinality()];
+        int count = 0;
+        for (int ordinal = allowed.nextSetBit(0); ordinal >= 0; ordinal = allowed.nextSetBit(ordinal + 1)) {
+            matches[count++] = ordinal;
+        }
+        Arrays.sort(matches, (a, b) -> {
+            int byScore = Float.compare(total[b], total[a]);
+            return byScore != 0 ? byScore : Integer.compare(a, b);
+        });
+
+        List<MenuItemResponse> results = new ArrayList<>(matches.length);
+        for (Integer ordinal : matches) {
+            results.add(items[ordinal]);
+        }
+        return results;
+    }
+
+    private BitSet filter(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        BitSet allowed = new BitSet(items.length);
+        if (categoryId != null) {
+            for (int ordinal : ordinalsByCategory.getOrDefault(categoryId, new int[0])) {
+                allowed.set(ordinal);
+            }
+        } else {
+            allowed.set(0, items.length);
+        }
+
+        if (minPrice != null || maxPrice != null) {
+            int from = minPrice != null ? lowerBound(Money.toCents(minPrice)) : 0;
+            int to = maxPrice != null ? upperBound(Money.toCents(maxPrice)) : items.length;
+            BitSet inRange = new BitSet(items.length);
+            for (int i = from; i < to; i++) {
+                inRange.set(ordinalsByPrice[i]);
+            }
+            allowed.and(inRange);
+        }
+        return allowed;
+    }
+
+    private void scoreToken(String token, float[] scores) {
+        // Exact and prefix matches are one contiguous range of the sorted vocabulary
+        int start = Arrays.binarySearch(terms, token);
+        int from = start >= 0 ? start : -start - 1;
+        for (int t = from; t < terms.length && terms[t].startsWith(token); t++) {
+            accumulate(t, terms[t].length() == token.length() ? EXACT_MATCH : PREFIX_MATCH, scores);
+        }
+
+        if (token.length() >= MIN_FUZZY_LENGTH) {
+            for (int t = 0; t < terms.length; t++) {
+                String term = terms[t];
+                if (!term.startsWith(token) && withinOneEdit(token, term)) {
+                    accumulate(t, FUZZY_MATCH, scores);
+                }
+            }
+        }
+    }
+
+    private void accumulate(int term, float quality, float[] scores) {
+        int[] list = postings[term];
+        float[] termWeights = weights[term];
+        for (int i = 0; i < list.length; i++) {
+            float score = termWeights[i] * quality;
+            if (score > scores[list[i]]) {
+                scores[list[i]] = score;
+            }
+        }
+    }
+
+    private int lowerBound(long cents) {
+        int low = 0;
+        int high = sortedPriceCents.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPriceCents[mid] < cents) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(long cents) {
+        int low = 0;
+        int high = sortedPriceCents.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPriceCents[mid] <= cents) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * True when the strings differ by at most one insertion, deletion or substitution.
+     */
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDiff = a.length() - b.length();
+        if (lengthDiff > 1 || lengthDiff < -1) {
+            return false;
+        }
+        String shorter = lengthDiff <= 0 ? a : b;
+        String longer = lengthDiff <= 0 ? b : a;
+        int i = 0;
+        int j = 0;
+        boolean edited = false;
+        while (i < shorter.length() && j < longer.length()) {
+            if (shorter.charAt(i) != longer.charAt(j)) {
+                if (edited) {
+                    return false;
+                }
+                edited = true;
+                if (shorter.length() == longer.length()) {
+                    i++;
+                }
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return !edited || (i == shorter.length() && j == longer.length());
+    }
+
+    private static void addTerms(Map<String, Float> itemTerms, String text, float weight) {
+        for (String token : tokenize(text)) {
+            itemTerms.merge(token, weight, Float::sum);
+        }
+    }
+
+    /**
+     * Lower-cases, strips accents and splits on anything that is not a letter or digit.
+     */
+    public static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase();
+        return Arrays.stream(folded.split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,283 @@
+package com.coffeehub.service.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable prefix trie for type-ahead suggestions.
+ * Each node stores its edges as parallel sorted arrays and caches the top-k entries of its
+ * subtree, so a lookup is one walk down the prefix followed by a copy of that node's list.
+ * Inserts and removals copy only the path from the root to the changed key; untouched
+ * subtrees are shared between versions, which keeps incremental updates cheap.
+ */
+public final class MenuSuggestTrie {
+
+    /**
+     * A suggestion target. Entries are identified by type and id; the same entry can be
+     * stored under several keys (one per word of its name).
+     */
+    public static final class Entry {
+
+        private final MenuChange.EntityType type;
+        private final long id;
+        private final String name;
+        private final Long categoryId;
+        private final long weight;
+
+        public Entry(MenuChange.EntityType type, long id, String name, Long categoryId, long weight) {
+            this.type = type;
+            this.id = id;
+            this.name = name;
+            this.categoryId = categoryId;
+            this.weight = weight;
+        }
+
+        public MenuChange.EntityType getType() {
+            return type;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        boolean sameTarget(Entry other) {
+            return type == other.type && id == other.id;
+        }
+
+        public boolean sameContent(Entry other) {
+            return sameTarget(other) && weight == other.weight
+                    && Objects.equals(name, other.name) && Objects.equals(categoryId, other.categoryId);
+        }
+    }
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::getWeight).reversed()
+            .thenComparing(Entry::getName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(Entry::getType)
+            .thenComparingLong(Entry::getId);
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private static final class Node {
+        final char[] labels;
+        final Node[] children;
+        final Entry[] terminals;
+        final Entry[] top;
+
+        Node(char[] labels, Node[] children, Entry[] terminals, int topK) {
+            this.labels = labels;
+            this.children = children;
+            this.terminals = terminals;
+            this.top = computeTop(children, terminals, topK);
+        }
+
+        boolean isEmpty() {
+            return children.length == 0 && terminals.length == 0;
+        }
+    }
+
+    private final Node root;
+    private final int topK;
+    private final int keyCount;
+
+    private MenuSuggestTrie(Node root, int topK, int keyCount) {
+        this.root = root;
+        this.topK = topK;
+        this.keyCount = keyCount;
+    }
+
+    public static MenuSuggestTrie empty(int topK) {
+        return new MenuSuggestTrie(null, topK, 0);
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /** Number of (key, entry) pairs stored. */
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    /**
+     * Returns a trie with the entry stored under the key, replacing any entry for the same target.
+     */
+    public MenuSuggestTrie insert(String key, Entry entry) {
+        boolean[] added = new boolean[1];
+        Node updated = insert(root, key, 0, entry, added);
+        return new MenuSuggestTrie(updated, topK, keyCount + (added[0] ? 1 : 0));
+    }
+
+    /**
+     * Returns a trie without the entry's target under the key. Missing keys are ignored.
+     */
+    public MenuSuggestTrie remove(String key, Entry entry) {
+        if (root == null) {
+            return this;
+        }
+        boolean[] removed = new boolean[1];
+        Node updated = remove(root, key, 0, entry, removed);
+        return removed[0] ? new MenuSuggestTrie(updated, topK, keyCount - 1) : this;
+    }
+
+    /**
+     * Highest-weighted entries whose key starts with the prefix, at most {@code min(limit, topK)}.
+     */
+    public List<Entry> suggest(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; node != null && i < prefix.length(); i++) {
+            int index = Arrays.binarySearch(node.labels, prefix.charAt(i));
+            node = index >= 0 ? node.children[index] : null;
+        }
+        if (node == null) {
+            return List.of();
+        }
+        int count = Math.min(Math.max(limit, 0), node.top.length);
+        return List.of(Arrays.copyOf(node.top, count));
+    }
+
+    private Node insert(Node node, String key, int depth, Entry entry, boolean[] added) {
+        char[] labels = node != null ? node.labels : NO_LABELS;
+        Node[] children = node != null ? node.children : NO_CHILDREN;
+        Entry[] terminals = node != null ? node.terminals : NO_ENTRIES;
+
+        if (depth == key.length()) {
+            Entry[] updated;
+            int existing = indexOfTarget(terminals, entry);
+            if (existing >= 0) {
+                updated = terminals.clone();
+                updated[existing] = entry;
+            } else {
+                updated = Arrays.copyOf(terminals, terminals.length + 1);
+                updated[terminals.length] = entry;
+                added[0] = true;
+            }
+            return new Node(labels, children, updated, topK);
+        }
+
+        char label = key.charAt(depth);
+        int index = Arrays.binarySearch(labels, label);
+        if (index >= 0) {
+            Node[] updatedChildren = children.clone();
+            updatedChildren[index] = insert(children[index], key, depth + 1, entry, added);
+            return new Node(labels, updatedChildren, terminals, topK);
+        }
+
+        int insertAt = -index - 1;
+        char[] updatedLabels = new char[labels.length + 1];
+        Node[] updatedChildren = new Node[children.length + 1];
+        System.arraycopy(labels, 0, updatedLabels, 0, insertAt);
+        System.arraycopy(children, 0, updatedChildren, 0, insertAt);
+        updatedLabels[insertAt] = label;
+        updatedChildren[insertAt] = insert(null, key, depth + 1, entry, added);
+        System.arraycopy(labels, insertAt, updatedLabels, insertAt + 1, labels.length - insertAt);
+        System.arraycopy(children, insertAt, updatedChildren, insertAt + 1, children.length - insertAt);
+        return new Node(updatedLabels, updatedChildren, terminals, topK);
+    }
+
+    private Node remove(Node node, String key, int depth, Entry entry, boolean[] removed) {
+        if (depth == key.length()) {
+            int existing = indexOfTarget(node.terminals, entry);
+            if (existing < 0) {
+                return node;
+            }
+            removed[0] = true;
+            Entry[] updated = new Entry[node.terminals.length - 1];
+            System.arraycopy(node.terminals, 0, updated, 0, existing);
+            System.arraycopy(node.terminals, existing + 1, updated, existing, updated.length - existing);
+            Node result = new Node(node.labels, node.children, updated, topK);
+            return result.isEmpty() ? null : result;
+        }
+
+        int index = Arrays.binarySearch(node.labels, key.charAt(depth));
+        if (index < 0) {
+            return node;
+        }
+        Node child = remove(node.children[index], key, depth + 1, entry, removed);
+        if (!removed[0]) {
+            return node;
+        }
+        if (child != null) {
+            Node[] updatedChildren = node.children.clone();
+            updatedChildren[index] = child;
+            return new Node(node.labels, updatedChildren, node.terminals, topK);
+        }
+
+        // Prune the emptied child
+        char[] updatedLabels = new char[node.labels.length - 1];
+        Node[] updatedChildren = new Node[node.children.length - 1];
+        System.arraycopy(node.labels, 0, updatedLabels, 0, index);
+        System.arraycopy(node.children, 0, updatedChildren, 0, index);
+        System.arraycopy(node.labels, index + 1, updatedLabels, index, updatedLabels.length - index);
+        System.arraycopy(node.children, index + 1, updatedChildren, index, updatedChildren.length - index);
+        Node result = new Node(updatedLabels, updatedChildren, node.terminals, topK);
+        return result.isEmpty() ? null : result;
+    }
+
+    private static int indexOfTarget(Entry[] entries, Entry entry) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].sameTarget(entry)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Entry[] computeTop(Node[] children, Entry[] terminals, int topK) {
+        List<Entry> candidates = new ArrayList<>(terminals.length + children.length * topK);
+        candidates.addAll(Arrays.asList(terminals));
+        for (Node child : children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(RANKING);
+
+        // An entry reachable through several keys of the subtree is listed once
+        List<Entry> top = new ArrayList<>(Math.min(topK, candidates.size()));
+        Set<String> seen = new HashSet<>();
+        for (Entry candidate : candidates) {
+            if (top.size() == topK) {
+                break;
+            }
+            if (seen.add(candidate.getType() + ":" + candidate.getId())) {
+                top.add(candidate);
+            }
+        }
+        return top.toArray(NO_ENTRIES);
+    }
+
+    /**
+     * Keys for a display name: the normalized name starting at each of its words, so
+     * "Iced Caramel Latte" is found by "ice", "car" and "lat".
+     */
+    public static List<String> keysFor(String name) {
+        String[] tokens = MenuSearchIndex.tokenize(name);
+        List<String> keys = new ArrayList<>(tokens.length);
+        for (int i = 0; i < tokens.length; i++) {
+            keys.add(String.join(" ", Arrays.copyOfRange(tokens, i, tokens.length)));
+        }
+        return keys;
+    }
+
+    /** Normalizes user input the same way names are normalized into keys. */
+    public static String normalizePrefix(String prefix) {
+        return String.join(" ", MenuSearchIndex.tokenize(prefix));
+    }
+}
@@ -0,0 +1,117 @@
+package com.coffeehub.service.catalog;
+
+import com.coffeehub.entity.MenuItem;
+import com.coffeehub.entity.Modifier;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Which modifiers may go on which menu item, precomputed from {@code menu_item_modifiers}.
+ * Every modifier gets a bit position; each item holds a bitset of the positions attached to it,
+ * so checking a choice is one lookup per modifier. Per-type limits cap how many modifiers of
+ * one {@link Modifier.ModifierType} a line may carry, such as a single size or milk.
+ */
+public final class ModifierCompatibility {
+
+    /** Most modifiers of each type one line may carry; types not listed are unlimited. */
+    public static final Map<Modifier.ModifierType, Integer> MAX_PER_TYPE = Map.of(
+            Modifier.ModifierType.SIZE, 1,
+            Modifier.ModifierType.MILK, 1,
+            Modifier.ModifierType.SWEETNESS, 1);
+
+    private static final Modifier.ModifierType[] TYPES = Modifier.ModifierType.values();
+
+    private final long[] modifierIds;
+    private final String[] modifierNames;
+    private final byte[] typeOrdinals;
+    private final Map<Long, BitSet> allowedByItem;
+    private final int[] maxPerType;
+
+    private ModifierCompatibility(long[] modifierIds, String[] modifierNames, byte[] typeOrdinals,
+                                  Map<Long, BitSet> allowedByItem, int[] maxPerType) {
+        this.modifierIds = modifierIds;
+        this.modifierNames = modifierNames;
+        this.typeOrdinals = typeOrdinals;
+        this.allowedByItem = allowedByItem;
+        this.maxPerType = maxPerType;
+    }
+
+    /** Builds the matrix from items with their modifiers loaded. */
+    public static ModifierCompatibility build(Collection<MenuItem> items, Collection<Modifier> modifiers) {
+        Map<Long, Modifier> byId = new HashMap<>();
+        for (Modifier modifier : modifiers) {
+            byId.put(modifier.getId(), modifier);
+        }
+        for (MenuItem item : items) {
+            for (Modifier modifier : item.getModifiers()) {
+                byId.putIfAbsent(modifier.getId(), modifier);
+            }
+        }
+
+        long[] ids = byId.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        String[] names = new String[ids.length];
+        byte[] types = new byte[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            Modifier modifier = byId.get(ids[i]);
+            names[i] = modifier.getName();
+            types[i] = (byte) (modifier.getType() != null ? modifier.getType().ordinal() : -1);
+        }
+
+        Map<Long, BitSet> allowedByItem = new HashMap<>();
+        for (MenuItem item : items) {
+            BitSet allowed = new BitSet(ids.length);
+            for (Modifier modifier : item.getModifiers()) {
+                allowed.set(Arrays.binarySearch(ids, modifier.getId()));
+            }
+            allowedByItem.put(item.getId(), allowed);
+        }
+
+        int[] maxPerType = new int[TYPES.length];
+        Arrays.fill(maxPerType, Integer.MAX_VALUE);
+        for (Map.Entry<Modifier.ModifierType, Integer> rule : new EnumMap<>(MAX_PER_TYPE).entrySet()) {
+            maxPerType[rule.getKey().ordinal()] = rule.getValue();
+        }
+        return new ModifierCompatibility(ids, names, types, allowedByItem, maxPerType);
+    }
+
+    /**
+     * Why the modifiers cannot go together on the item, or {@code null} when they can.
+     * Unknown items are not judged here; callers check those against the catalog.
+     */
+    public String check(long menuItemId, List<Long> modifierIds) {
+        if (modifierIds.isEmpty()) {
+            return null;
+        }
+        BitSet allowed = allowedByItem.get(menuItemId);
+        if (allowed == null) {
+            return null;
+        }
+        int[] counts = new int[TYPES.length];
+        for (Long modifierId : modifierIds) {
+            int position = modifierId != null ? Arrays.binarySearch(this.modifierIds, modifierId) : -1;
+            if (position < 0 || !allowed.get(position)) {
+                String name = position >= 0 ? modifierNames[position] : "modifier " + modifierId;
+                return name + " cannot be added to this item";
+            }
+            int type = typeOrdinals[position];
+            if (type >= 0 && ++counts[type] > maxPerType[type]) {
+                return "Only " + maxPerType[type] + " " + TYPES[type].name().toLowerCase() + " option"
+                        + (maxPerType[type] == 1 ? "" : "s") + " can be chosen";
+            }
+        }
+        return null;
+    }
+
+    /** Whether the modifier is attached to the item. */
+    public boolean isAllowed(long menuItemId, long modifierId) {
+        BitSet allowed = allowedByItem.get(menuItemId);
+        int position = Arrays.binarySearch(modifierIds, modifierId);
+        return allowed != null && position >= 0 && allowed.get(position);
+    }
+}
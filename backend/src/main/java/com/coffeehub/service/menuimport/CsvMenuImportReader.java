@@ -0,0 +1,139 @@
+package com.coffeehub.service.menuimport;
+
+import com.coffeehub.dto.request.MenuItemImportRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads CSV rows with a header line, e.g.
+ * {@code name,description,price,category,imageUrl,available,preparationTime}.
+ * Header names are matched case-insensitively and may use snake case; fields may be
+ * quoted with embedded commas, quotes ("") and line breaks.
+ */
+public class CsvMenuImportReader implements MenuImportReader {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long line;
+
+    public CsvMenuImportReader(InputStream input) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("Menu import CSV is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT);
+            // Tolerate a UTF-8 byte order mark on the first column
+            columns.put(column.replace("\uFEFF", ""), i);
+        }
+        for (String required : List.of("name", "price", "category")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Menu import CSV is missing the '" + required + "' column");
+            }
+        }
+    }
+
+    @Override
+    public MenuItemImportRequest next() throws IOException {
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        MenuItemImportRequest request = new MenuItemImportRequest();
+        request.setName(field(record, "name"));
+        request.setDescription(field(record, "description"));
+        request.setCategory(field(record, "category"));
+        request.setImageUrl(field(record, "imageurl"));
+
+        String price = field(record, "price");
+        String available = field(record, "available");
+        String preparationTime = field(record, "preparationtime");
+        try {
+            request.setPrice(price != null ? new BigDecimal(price) : null);
+            if (available != null) {
+                request.setAvailable(Boolean.parseBoolean(available));
+            }
+            if (preparationTime != null) {
+                request.setPreparationTime(Integer.valueOf(preparationTime));
+            }
+        } catch (NumberFormatException e) {
+            throw new MenuImportRowException("Invalid number on line " + line + ": " + e.getMessage(), e);
+        }
+        return request;
+    }
+
+    private String field(List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        line++;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int following = reader.read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (following != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    if (ch == '\n') {
+                        line++;
+                    }
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                break;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,57 @@
+package com.coffeehub.service.menuimport;
+
+import com.coffeehub.dto.request.MenuItemImportRequest;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a JSON array of {@link MenuItemImportRequest} objects one element at a time.
+ */
+public class JsonMenuImportReader implements MenuImportReader {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private boolean finished;
+
+    public JsonMenuImportReader(ObjectMapper objectMapper, InputStream input) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createParser(input);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IllegalArgumentException("Menu import JSON must be an array of items");
+        }
+    }
+
+    @Override
+    public MenuItemImportRequest next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            finished = true;
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Unexpected " + token + " in menu import array");
+        }
+        // Read the element as a tree first so a bad field only loses this row
+        JsonNode element = objectMapper.readTree(parser);
+        try {
+            return objectMapper.treeToValue(element, MenuItemImportRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new MenuImportRowException("Invalid item: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,120 @@
+package com.coffeehub.service.menuimport;
+
+import com.coffeehub.dto.response.MenuImportJobResponse;
+import com.coffeehub.dto.response.MenuImportSummary;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one import. Counters are updated by the worker thread after each committed
+ * chunk and read by status requests, so they are atomic rather than locked.
+ */
+public class MenuImportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    // Only the first few row errors are kept; the rest are counted as skipped
+    private static final int MAX_ERRORS = 50;
+
+    private final String id;
+    private final String format;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private final AtomicLong itemsProcessed = new AtomicLong();
+    private final AtomicLong itemsCreated = new AtomicLong();
+    private final AtomicLong itemsSkipped = new AtomicLong();
+    private final AtomicLong categoriesCreated = new AtomicLong();
+    private final List<String> errors = new ArrayList<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String failureMessage;
+
+    public MenuImportJob(String id, String format) {
+        this.id = id;
+        this.format = format;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public void start() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    public void complete() {
+        finishedAt = LocalDateTime.now();
+        status = Status.COMPLETED;
+    }
+
+    public void fail(String message) {
+        failureMessage = message;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    public void recordChunk(long processed, long created, long skipped, long categories) {
+        itemsProcessed.addAndGet(processed);
+        itemsCreated.addAndGet(created);
+        itemsSkipped.addAndGet(skipped);
+        categoriesCreated.addAndGet(categories);
+    }
+
+    public void recordError(String error) {
+        synchronized (errors) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+
+    public MenuImportSummary toSummary() {
+        if (itemsProcessed.get() == 0 && status == Status.COMPLETED) {
+            return MenuImportSummary.empty();
+        }
+        return MenuImportSummary.success(itemsProcessed.get(), itemsCreated.get(),
+                itemsSkipped.get(), categoriesCreated.get());
+    }
+
+    public MenuImportJobResponse toResponse() {
+        MenuImportJobResponse response = new MenuImportJobResponse();
+        response.setJobId(id);
+        response.setStatus(status.name());
+        response.setFormat(format);
+        response.setItemsProcessed(itemsProcessed.get());
+        response.setItemsCreated(itemsCreated.get());
+        response.setItemsSkipped(itemsSkipped.get());
+        response.setCategoriesCreated(categoriesCreated.get());
+        synchronized (errors) {
+            response.setErrors(List.copyOf(errors));
+        }
+        response.setSubmittedAt(submittedAt);
+        response.setStartedAt(startedAt);
+        response.setFinishedAt(finishedAt);
+        response.setFailureMessage(failureMessage);
+        if (status == Status.COMPLETED) {
+            response.setSummary(toSummary());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,36 @@
+package com.coffeehub.service.menuimport;
+
+import com.coffeehub.dto.request.MenuItemImportRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Pull-style source of import rows. Implementations parse their input incrementally,
+ * so only the current row is held in memory.
+ */
+public interface MenuImportReader extends Closeable {
+
+    /**
+     * Returns the next row, or {@code null} when the input is exhausted.
+     * A {@link MenuImportRowException} means the current row was unreadable but the
+     * reader is positioned on the next one.
+     */
+    MenuItemImportRequest next() throws IOException;
+
+    static MenuImportReader of(List<MenuItemImportRequest> requests) {
+        Iterator<MenuItemImportRequest> iterator = requests.iterator();
+        return new MenuImportReader() {
+            @Override
+            public MenuItemImportRequest next() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
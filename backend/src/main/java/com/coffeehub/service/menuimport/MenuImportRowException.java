@@ -0,0 +1,16 @@
+package com.coffeehub.service.menuimport;
+
+/**
+ * Thrown by a {@link MenuImportReader} for a row that could not be converted.
+ * The row is skipped and the import continues.
+ */
+public class MenuImportRowException extends RuntimeException {
+
+    public MenuImportRowException(String message) {
+        super(message);
+    }
+
+    public MenuImportRowException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,18 @@
+package com.coffeehub.service.order;
+
+/**
+ * Published when a chef account is created, activated, disabled or moved to another role.
+ * The chef scheduler rereads its chefs once the surrounding transaction has committed.
+ */
+public class ChefChangedEvent {
+
+    private final Long chefId;
+
+    public ChefChangedEvent(Long chefId) {
+        this.chefId = chefId;
+    }
+
+    public Long getChefId() {
+        return chefId;
+    }
+}
@@ -0,0 +1,20 @@
+package com.coffeehub.service.order;
+
+import com.coffeehub.dto.response.OrderResponse;
+
+/**
+ * Published by {@link com.coffeehub.service.OrderService} whenever an order is created or
+ * changed. The kitchen board applies it once the surrounding transaction has committed.
+ */
+public class KitchenOrderChangedEvent {
+
+    private final OrderResponse order;
+
+    public KitchenOrderChangedEvent(OrderResponse order) {
+        this.order = order;
+    }
+
+    public OrderResponse getOrder() {
+        return order;
+    }
+}
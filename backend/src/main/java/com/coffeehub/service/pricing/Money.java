@@ -0,0 +1,42 @@
+package com.coffeehub.service.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between BigDecimal amounts and {@code long} minor units (cents).
+ * Prices are stored with two decimals, so cents are exact; anything finer is rounded half-up.
+ */
+public final class Money {
+
+    private static final int SCALE = 2;
+
+    // BigDecimal caches nothing above ten, so the common small amounts are kept here
+    private static final BigDecimal[] SMALL = new BigDecimal[10_000];
+
+    static {
+        for (int i = 0; i < SMALL.length; i++) {
+            SMALL[i] = BigDecimal.valueOf(i, SCALE);
+        }
+    }
+
+    private Money() {
+    }
+
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        if (amount.scale() == SCALE) {
+            return amount.unscaledValue().longValueExact();
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        if (cents >= 0 && cents < SMALL.length) {
+            return SMALL[(int) cents];
+        }
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+}
@@ -0,0 +1,95 @@
+package com.coffeehub.service.pricing;
+
+import com.coffeehub.dto.response.MenuItemResponse;
+import com.coffeehub.dto.response.ModifierResponse;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable id to cents lookup for menu item prices and modifier price adjustments.
+ * Backed by open-addressing {@code long[]} tables, so lookups neither box nor allocate.
+ */
+public final class PriceTable {
+
+    /** Returned by lookups for ids that are not in the table. */
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private final LongTable items;
+    private final LongTable modifiers;
+
+    private PriceTable(LongTable items, LongTable modifiers) {
+        this.items = items;
+        this.modifiers = modifiers;
+    }
+
+    public static PriceTable build(Collection<MenuItemResponse> items, Collection<ModifierResponse> modifiers) {
+        LongTable itemTable = new LongTable(items.size());
+        for (MenuItemResponse item : items) {
+            itemTable.put(item.getId(), Money.toCents(item.getPrice()));
+        }
+        LongTable modifierTable = new LongTable(modifiers.size());
+        for (ModifierResponse modifier : modifiers) {
+            modifierTable.put(modifier.getId(), Money.toCents(modifier.getPriceAdjustment()));
+        }
+        return new PriceTable(itemTable, modifierTable);
+    }
+
+    /** Price of the menu item in cents, or {@link #MISSING}. */
+    public long itemCents(long menuItemId) {
+        return items.get(menuItemId);
+    }
+
+    /** Price adjustment of the modifier in cents, or {@link #MISSING}. */
+    public long modifierCents(long modifierId) {
+        return modifiers.get(modifierId);
+    }
+
+    /**
+     * Linear-probing long to long map sized to at most half full. Ids are database keys and
+     * never equal to the empty marker.
+     */
+    private static final class LongTable {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private final long[] keys;
+        private final long[] values;
+        private final int mask;
+
+        LongTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(2, expected) * 2 - 1) << 1;
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(keys, EMPTY);
+        }
+
+        void put(long key, long value) {
+            int slot = slot(key);
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        long get(long key) {
+            int slot = slot(key);
+            while (true) {
+                long candidate = keys[slot];
+                if (candidate == key) {
+                    return values[slot];
+                }
+                if (candidate == EMPTY) {
+                    return MISSING;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
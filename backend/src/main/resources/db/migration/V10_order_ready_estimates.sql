@@ -0,0 +1,2 @@
+-- Estimated ready time per order, kept by the chef scheduler
+ALTER TABLE orders ADD COLUMN estimated_ready_at TIMESTAMP NULL;
@@ -0,0 +1,14 @@
+-- Time-of-day availability windows for categories and menu items
+CREATE TABLE IF NOT EXISTS menu_schedules (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100),
+    target_type ENUM('CATEGORY', 'MENU_ITEM') NOT NULL,
+    target_id BIGINT NOT NULL,
+    days_of_week INT NOT NULL DEFAULT 127,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    location VARCHAR(100),
+    active BOOLEAN DEFAULT TRUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_menu_schedules_target (target_type, target_id)
+);
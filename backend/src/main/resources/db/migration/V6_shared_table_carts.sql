@@ -0,0 +1,3 @@
+-- Shared table carts: each line records the guest who added it
+ALTER TABLE cart_items ADD COLUMN participant VARCHAR(150);
+ALTER TABLE cart_items ADD COLUMN guest_name VARCHAR(100);
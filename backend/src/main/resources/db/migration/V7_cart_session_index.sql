@@ -0,0 +1,3 @@
+-- Guest cart lookups and the abandoned cart sweeper filter on session_token
+CREATE INDEX idx_carts_session_token ON carts(session_token, table_id);
+CREATE INDEX idx_carts_updated_at ON carts(updated_at);
@@ -0,0 +1,18 @@
+-- Orders are numbered by the application with time-ordered 64-bit ids; the former VARCHAR
+-- ids were never written by it, so existing ids must already be numeric for this to apply
+
+ALTER TABLE order_items DROP FOREIGN KEY fk_order_items_order;
+ALTER TABLE order_status_history DROP FOREIGN KEY fk_order_status_history_order;
+ALTER TABLE payments DROP FOREIGN KEY fk_payments_order;
+
+ALTER TABLE orders MODIFY id BIGINT NOT NULL;
+ALTER TABLE order_items MODIFY order_id BIGINT NOT NULL;
+ALTER TABLE order_status_history MODIFY order_id BIGINT NOT NULL;
+ALTER TABLE payments MODIFY order_id BIGINT NOT NULL;
+
+ALTER TABLE order_items ADD CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE;
+ALTER TABLE order_status_history ADD CONSTRAINT fk_order_status_history_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE;
+ALTER TABLE payments ADD CONSTRAINT fk_payments_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE;
+
+-- Per-day ticket number for kitchen screens
+ALTER TABLE orders ADD COLUMN ticket_number INT;
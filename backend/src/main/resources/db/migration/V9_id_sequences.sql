@@ -0,0 +1,16 @@
+-- Pooled id allocation for entities inserted in JDBC batches (see IdSequences).
+-- Hibernate's pooled optimizer hands out next_val - 49 .. next_val, so each row starts one
+-- allocation block past the current maximum id.
+CREATE TABLE id_sequences (
+    sequence_name VARCHAR(100) PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'order_items', COALESCE(MAX(id), 0) + 50 FROM order_items;
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'order_status_history', COALESCE(MAX(id), 0) + 50 FROM order_status_history;
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'payments', COALESCE(MAX(id), 0) + 50 FROM payments;
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'refresh_tokens', COALESCE(MAX(id), 0) + 50 FROM refresh_tokens;
@@ -0,0 +1,198 @@
+package com.coffeehub.entity;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the statements sent to the database when an order is created. With IDENTITY ids every
+ * line and history row is its own INSERT; with pooled table ids each table is written in one batch.
+ */
+class OrderInsertBatchingTest {
+
+    private static final int LINES = 10;
+    private static final int MODIFIERS_PER_LINE = 2;
+
+    private final AtomicInteger statements = new AtomicInteger();
+    private SessionFactory sessionFactory;
+
+    private User user;
+    private MenuItem menuItem;
+    private final Modifier[] modifiers = new Modifier[MODIFIERS_PER_LINE];
+    private long nextOrderId = 1;
+
+    private void start(boolean identityIds) {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:order-batching;MODE=MySQL;DB_CLOSE_DELAY=-1");
+
+        Configuration configuration = new Configuration()
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", "20")
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty("hibernate.order_updates", "true")
+                .setProperty("hibernate.show_sql", "false");
+        configuration.getProperties().put("hibernate.connection.datasource", counting(h2, DataSource.class));
+        for (Class<?> entity : new Class<?>[]{User.class, Category.class, MenuItem.class, Modifier.class,
+                RestaurantTable.class, Order.class, OrderItem.class, OrderItemModifier.class,
+                OrderStatusHistory.class, Payment.class, RefreshToken.class}) {
+            configuration.addAnnotatedClass(entity);
+        }
+        if (identityIds) {
+            configuration.addResource("identity-ids-orm.xml");
+        }
+        sessionFactory = configuration.buildSessionFactory();
+
+        inTransaction(session -> {
+            // Seeded as V9_id_sequences does for empty tables
+            session.createNativeMutationQuery("UPDATE id_sequences SET next_val = " + IdSequences.ALLOCATION_SIZE)
+                    .executeUpdate();
+
+            user = new User();
+            user.setEmail("batch@example.com");
+            user.setPassword("secret");
+            user.setFirstName("Batch");
+            user.setLastName("Test");
+            user.setRole(User.Role.CUSTOMER);
+            session.persist(user);
+
+            Category category = new Category();
+            category.setName("Coffee");
+            session.persist(category);
+
+            menuItem = new MenuItem();
+            menuItem.setName("Latte");
+            menuItem.setPrice(new BigDecimal("4.50"));
+            menuItem.setCategory(category);
+            session.persist(menuItem);
+
+            for (int i = 0; i < MODIFIERS_PER_LINE; i++) {
+                modifiers[i] = new Modifier();
+                modifiers[i].setName("Extra " + i);
+                modifiers[i].setType(Modifier.ModifierType.values()[i]);
+                modifiers[i].setPriceAdjustment(new BigDecimal("0.50"));
+                session.persist(modifiers[i]);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Test
+    void createOrder_WritesEachTableInOneBatch() {
+        int identity = statementsForSecondOrder(true);
+        int pooled = statementsForSecondOrder(false);
+
+        // Every order_items and order_status_history row was its own INSERT
+        assertTrue(identity >= 1 + LINES + 1, "IDENTITY statements: " + identity);
+        // orders, order_items, order_item_modifiers, order_status_history
+        assertEquals(4, pooled, "pooled id statements (IDENTITY took " + identity + ")");
+    }
+
+    @Test
+    void createOrder_IdAllocationIsOneRoundTripPerBlock() {
+        start(false);
+        statements.set(0);
+        inTransaction(session -> session.persist(newOrder(session)));
+
+        // order_items and order_status_history each read and advance their id_sequences row once
+        assertEquals(4 + 2 * 2, statements.get());
+    }
+
+    private int statementsForSecondOrder(boolean identityIds) {
+        start(identityIds);
+        // The first order allocates the id blocks; later orders draw from them without a round trip
+        inTransaction(session -> session.persist(newOrder(session)));
+        statements.set(0);
+        inTransaction(session -> session.persist(newOrder(session)));
+        int count = statements.get();
+        sessionFactory.close();
+        sessionFactory = null;
+        return count;
+    }
+
+    private Order newOrder(Session session) {
+        Order order = new Order();
+        order.setId(nextOrderId++);
+        order.setUser(session.getReference(User.class, user.getId()));
+        order.setOrderType(Order.OrderType.TAKEOUT);
+        order.setPaymentMethod(Order.PaymentMethod.CARD);
+        order.setTotalAmount(new BigDecimal("55.00"));
+        for (int i = 0; i < LINES; i++) {
+            OrderItem line = new OrderItem();
+            line.setOrder(order);
+            line.setMenuItem(session.getReference(MenuItem.class, menuItem.getId()));
+            line.setMenuItemName(menuItem.getName());
+            line.setQuantity(1);
+            line.setPrice(menuItem.getPrice());
+            for (Modifier modifier : modifiers) {
+                OrderItemModifier lineModifier = new OrderItemModifier();
+                lineModifier.setOrderItem(line);
+                lineModifier.setModifier(session.getReference(Modifier.class, modifier.getId()));
+                lineModifier.setModifierName(modifier.getName());
+                lineModifier.setPriceAdjustment(modifier.getPriceAdjustment());
+                line.getModifiers().add(lineModifier);
+            }
+            order.getOrderItems().add(line);
+        }
+        OrderStatusHistory history = new OrderStatusHistory();
+        history.setOrder(order);
+        history.setStatus(Order.OrderStatus.PENDING);
+        history.setNotes("Order created");
+        order.getStatusHistory().add(history);
+        return order;
+    }
+
+    private void inTransaction(Consumer<Session> work) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            work.accept(session);
+            transaction.commit();
+        }
+    }
+
+    /** Wraps the JDBC objects so every execute call, single statement or batch, is counted. */
+    private Object counting(Object target, Class<?> type) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (method.getName().startsWith("execute")) {
+                statements.incrementAndGet();
+            }
+            if (result instanceof PreparedStatement) {
+                return counting(result, PreparedStatement.class);
+            }
+            if (result instanceof Statement) {
+                return counting(result, Statement.class);
+            }
+            if (result instanceof Connection) {
+                return counting(result, Connection.class);
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package com.coffeehub.service;
+
+import com.coffeehub.exception.ResourceNotFoundException;
+import com.coffeehub.service.cart.CartKey;
+import com.coffeehub.service.cart.CartLine;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartStoreTest {
+
+    private static final long LATTE = 1L;
+    private static final long DELETED_ITEM = 99L;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private TableService tableService;
+
+    @InjectMocks
+    private CartStore cartStore;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:cart-store;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(h2);
+        jdbcTemplate.execute("CREATE TABLE menu_items (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE modifiers (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE carts (id BIGINT PRIMARY KEY, user_id BIGINT, table_id BIGINT, " +
+                "session_token VARCHAR(100), created_at TIMESTAMP, updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE cart_items (id BIGINT PRIMARY KEY, cart_id BIGINT NOT NULL, " +
+                "menu_item_id BIGINT NOT NULL, quantity INT NOT NULL, special_instructions TEXT, " +
+                "price DECIMAL(10,2) NOT NULL, created_at TIMESTAMP, participant VARCHAR(150), guest_name VARCHAR(100), " +
+                "FOREIGN KEY (cart_id) REFERENCES carts(id) ON DELETE CASCADE, " +
+                "FOREIGN KEY (menu_item_id) REFERENCES menu_items(id))");
+        jdbcTemplate.execute("CREATE TABLE cart_item_modifiers (cart_item_id BIGINT NOT NULL, modifier_id BIGINT NOT NULL, " +
+                "PRIMARY KEY (cart_item_id, modifier_id), " +
+                "FOREIGN KEY (cart_item_id) REFERENCES cart_items(id) ON DELETE CASCADE, " +
+                "FOREIGN KEY (modifier_id) REFERENCES modifiers(id))");
+        jdbcTemplate.update("INSERT INTO menu_items (id) VALUES (?)", LATTE);
+
+        ReflectionTestUtils.setField(cartStore, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(cartStore, "transactionManager", new DataSourceTransactionManager(h2));
+        ReflectionTestUtils.setField(cartStore, "lockStripes", 4);
+        ReflectionTestUtils.setField(cartStore, "idleEvictMinutes", 30L);
+        cartStore.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void flush_WritesOtherCartsWhenOneIsRejected() {
+        CartKey good = CartKey.forSession("good-guest", null);
+        CartKey bad = CartKey.forSession("bad-guest", null);
+        addLine(good, LATTE);
+        addLine(bad, DELETED_ITEM);
+
+        cartStore.flush();
+
+        assertEquals(1, countLines("good-guest"));
+        assertEquals(0, countCarts("bad-guest"));
+        boolean clean = cartStore.read(bad, false, state -> state.isClean());
+        assertFalse(clean, "rejected cart stays dirty for a retry");
+    }
+
+    @Test
+    void flush_DropsCartAfterRepeatedRejections() {
+        CartKey good = CartKey.forSession("good-guest", null);
+        CartKey bad = CartKey.forSession("bad-guest", null);
+        addLine(bad, DELETED_ITEM);
+
+        cartStore.flush();
+        cartStore.flush();
+        addLine(good, LATTE);
+        cartStore.flush();
+
+        assertEquals(1, countLines("good-guest"));
+        // Dropped from memory and never written, so there is nothing to reload
+        assertThrows(ResourceNotFoundException.class, () -> cartStore.read(bad, false, state -> state));
+
+        // Later flushes are no longer held up by it
+        addLine(good, LATTE);
+        cartStore.flush();
+        assertEquals(2, countLines("good-guest"));
+    }
+
+    private void addLine(CartKey key, long menuItemId) {
+        cartStore.update(key, true, state -> {
+            state.addLine(new CartLine(cartStore.nextLineId(), menuItemId, 1, null, 450, List.of(), LocalDateTime.now()));
+            return null;
+        });
+    }
+
+    private int countCarts(String sessionToken) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM carts WHERE session_token = ?", Integer.class,
+                sessionToken);
+    }
+
+    private int countLines(String sessionToken) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items ci JOIN carts c ON c.id = ci.cart_id " +
+                "WHERE c.session_token = ?", Integer.class, sessionToken);
+    }
+}
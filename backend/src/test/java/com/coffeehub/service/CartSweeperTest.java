@@ -0,0 +1,73 @@
+package com.coffeehub.service;
+
+import com.coffeehub.service.cart.CartKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartSweeperTest {
+
+    @Mock
+    private CartStore cartStore;
+
+    @InjectMocks
+    private CartSweeper cartSweeper;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:cart-sweeper;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(h2);
+        jdbcTemplate.execute("CREATE TABLE carts (id BIGINT PRIMARY KEY, user_id BIGINT, " +
+                "session_token VARCHAR(255), table_id BIGINT, updated_at TIMESTAMP)");
+
+        ReflectionTestUtils.setField(cartSweeper, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(cartSweeper, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cartSweeper, "abandonedAfterHours", 72L);
+        ReflectionTestUtils.setField(cartSweeper, "intervalMinutes", 60L);
+        ReflectionTestUtils.setField(cartSweeper, "batchSize", 200);
+        cartSweeper.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartSweeper.shutdown();
+        jdbcTemplate.execute("DROP TABLE carts");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sweep_KeepsTableIdOfGuestCarts() {
+        Timestamp old = Timestamp.valueOf(LocalDateTime.now().minusDays(5));
+        jdbcTemplate.update("INSERT INTO carts VALUES (1, NULL, 'takeout-guest', NULL, ?)", old);
+        jdbcTemplate.update("INSERT INTO carts VALUES (2, NULL, 'table-guest', 7, ?)", old);
+        when(cartStore.removeAbandoned(any(), any())).thenReturn(2);
+
+        assertEquals(2, cartSweeper.sweep());
+
+        ArgumentCaptor<Map<Long, CartKey>> batch = ArgumentCaptor.forClass(Map.class);
+        verify(cartStore).removeAbandoned(batch.capture(), any(LocalDateTime.class));
+        assertEquals(CartKey.forSession("takeout-guest", null), batch.getValue().get(1L));
+        assertEquals(CartKey.forSession("table-guest", 7L), batch.getValue().get(2L));
+    }
+}
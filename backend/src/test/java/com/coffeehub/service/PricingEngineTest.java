@@ -0,0 +1,184 @@
+package com.coffeehub.service;
+
+import com.coffeehub.entity.CartItem;
+import com.coffeehub.entity.Category;
+import com.coffeehub.entity.MenuItem;
+import com.coffeehub.entity.Modifier;
+import com.coffeehub.service.catalog.MenuCatalog;
+import com.coffeehub.service.pricing.Money;
+import com.coffeehub.service.pricing.PriceTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PricingEngineTest {
+
+    @Mock
+    private MenuCatalogService menuCatalogService;
+
+    @InjectMocks
+    private PricingEngine pricingEngine;
+
+    private final List<List<CartItem>> carts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Coffee");
+
+        List<Modifier> modifiers = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            Modifier modifier = new Modifier();
+            modifier.setId(id);
+            modifier.setName("Modifier " + id);
+            modifier.setType(Modifier.ModifierType.values()[(int) (id % Modifier.ModifierType.values().length)]);
+            modifier.setPriceAdjustment(BigDecimal.valueOf(random.nextInt(150), 2));
+            modifiers.add(modifier);
+        }
+
+        List<MenuItem> items = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            MenuItem item = new MenuItem();
+            item.setId(id);
+            item.setName("Item " + id);
+            item.setPrice(BigDecimal.valueOf(150 + random.nextInt(1500), 2));
+            item.setCategory(category);
+            items.add(item);
+        }
+
+        lenient().when(menuCatalogService.getCatalog())
+                .thenReturn(MenuCatalog.build(1L, List.of(category), items, modifiers));
+
+        for (int c = 0; c < 100; c++) {
+            List<CartItem> cart = new ArrayList<>();
+            for (int l = 0, lines = 1 + random.nextInt(8); l < lines; l++) {
+                MenuItem item = items.get(random.nextInt(items.size()));
+                CartItem line = new CartItem();
+                line.setMenuItem(item);
+                line.setPrice(item.getPrice());
+                line.setQuantity(1 + random.nextInt(5));
+                for (int m = 0, count = random.nextInt(4); m < count; m++) {
+                    line.getModifiers().add(modifiers.get(random.nextInt(modifiers.size())));
+                }
+                cart.add(line);
+            }
+            carts.add(cart);
+        }
+    }
+
+    @Test
+    void cartTotals_MatchBigDecimalArithmetic() {
+        PriceTable prices = pricingEngine.currentPrices();
+
+        for (List<CartItem> cart : carts) {
+            BigDecimal expected = BigDecimal.ZERO;
+            for (CartItem line : cart) {
+                BigDecimal lineTotal = bigDecimalLineTotal(line);
+                assertEquals(0, lineTotal.compareTo(Money.fromCents(pricingEngine.cartLineCents(prices, line))));
+                expected = expected.add(lineTotal);
+            }
+            assertEquals(0, expected.compareTo(Money.fromCents(pricingEngine.cartTotalCents(prices, cart))));
+        }
+    }
+
+    @Test
+    void cartLine_FallsBackToStoredPriceWhenItemLeftTheMenu() {
+        MenuItem removed = new MenuItem();
+        removed.setId(9999L);
+        CartItem line = new CartItem();
+        line.setMenuItem(removed);
+        line.setPrice(new BigDecimal("4.25"));
+        line.setQuantity(2);
+
+        assertEquals(850L, pricingEngine.cartLineCents(pricingEngine.currentPrices(), line));
+    }
+
+    @Test
+    void money_RoundTripsCents() {
+        assertEquals(1999L, Money.toCents(new BigDecimal("19.99")));
+        assertEquals(500L, Money.toCents(new BigDecimal("5")));
+        assertEquals(13L, Money.toCents(new BigDecimal("0.125")));
+        assertEquals(0, new BigDecimal("123456.78").compareTo(Money.fromCents(12345678L)));
+    }
+
+    /**
+     * Compares the cents engine with the BigDecimal stream reduction it replaced.
+     * Run with {@code mvn test -Dtest=PricingEngineTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_CentsEngineIsFasterThanBigDecimalPath() {
+        PriceTable prices = pricingEngine.currentPrices();
+        int rounds = 2_000;
+
+        // Warm up both paths so the comparison is between compiled code
+        for (int i = 0; i < 5; i++) {
+            runBigDecimal(rounds);
+            runEngine(prices, rounds);
+        }
+
+        long bigDecimalNanos = Long.MAX_VALUE;
+        long engineNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            runBigDecimal(rounds);
+            bigDecimalNanos = Math.min(bigDecimalNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            runEngine(prices, rounds);
+            engineNanos = Math.min(engineNanos, System.nanoTime() - start);
+        }
+
+        int totals = rounds * carts.size();
+        assertTrue(engineNanos < bigDecimalNanos, String.format(
+                "cents engine (%.1f ns/cart) should beat BigDecimal (%.1f ns/cart)",
+                (double) engineNanos / totals, (double) bigDecimalNanos / totals));
+    }
+
+    private long runBigDecimal(int rounds) {
+        long checksum = 0;
+        for (int r = 0; r < rounds; r++) {
+            for (List<CartItem> cart : carts) {
+                checksum += cart.stream()
+                        .map(PricingEngineTest::bigDecimalLineTotal)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add)
+                        .signum();
+            }
+        }
+        return checksum;
+    }
+
+    private long runEngine(PriceTable prices, int rounds) {
+        long checksum = 0;
+        for (int r = 0; r < rounds; r++) {
+            for (List<CartItem> cart : carts) {
+                checksum += Long.signum(pricingEngine.cartTotalCents(prices, cart));
+            }
+        }
+        return checksum;
+    }
+
+    // The per-line arithmetic CartItem.getTotalPrice() used before the cents engine
+    private static BigDecimal bigDecimalLineTotal(CartItem line) {
+        BigDecimal modifiersPrice = line.getModifiers().stream()
+                .map(Modifier::getPriceAdjustment)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return line.getPrice().add(modifiersPrice).multiply(BigDecimal.valueOf(line.getQuantity()));
+    }
+}
@@ -0,0 +1,78 @@
+package com.coffeehub.service.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderIdGeneratorTest {
+
+    private static final long NOW = OrderIdGenerator.EPOCH_MILLIS + 86_400_000L;
+    private static final int SEQUENCES_PER_MILLI = 1 << OrderIdGenerator.SEQUENCE_BITS;
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+
+    @Test
+    void nextId_EncodesTimestampAndNode() {
+        OrderIdGenerator generator = new OrderIdGenerator(5, clock::get);
+
+        long id = generator.nextId();
+
+        assertEquals(NOW, OrderIdGenerator.timestampOf(id));
+        assertEquals(5, OrderIdGenerator.nodeOf(id));
+        assertEquals(0, sequenceOf(id));
+    }
+
+    @Test
+    void nextId_CarriesFullSequenceIntoNextMillisecond() {
+        OrderIdGenerator generator = new OrderIdGenerator(1, clock::get);
+
+        long previous = -1;
+        for (int i = 0; i < SEQUENCES_PER_MILLI; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "ids must keep increasing");
+            assertEquals(NOW, OrderIdGenerator.timestampOf(id));
+            assertEquals(i, sequenceOf(id));
+            previous = id;
+        }
+
+        // The clock has not moved, so the next id borrows the following millisecond
+        long carried = generator.nextId();
+        assertTrue(carried > previous);
+        assertEquals(NOW + 1, OrderIdGenerator.timestampOf(carried));
+        assertEquals(0, sequenceOf(carried));
+        assertEquals(1, OrderIdGenerator.nodeOf(carried));
+
+        // Once the wall clock passes the borrowed millisecond it is used again
+        clock.set(NOW + 5);
+        assertEquals(NOW + 5, OrderIdGenerator.timestampOf(generator.nextId()));
+    }
+
+    @Test
+    void nextId_KeepsIncreasingWhenClockStepsBack() {
+        OrderIdGenerator generator = new OrderIdGenerator(2, clock::get);
+        long first = generator.nextId();
+
+        clock.set(NOW - 1_000);
+        long second = generator.nextId();
+        long third = generator.nextId();
+
+        assertTrue(second > first);
+        assertTrue(third > second);
+        assertEquals(NOW, OrderIdGenerator.timestampOf(second));
+        assertEquals(1, sequenceOf(second));
+        assertEquals(2, sequenceOf(third));
+    }
+
+    @Test
+    void constructor_RejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderIdGenerator(-1, clock::get));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OrderIdGenerator(OrderIdGenerator.MAX_NODE_ID + 1, clock::get));
+    }
+
+    private static long sequenceOf(long id) {
+        return id & (SEQUENCES_PER_MILLI - 1);
+    }
+}